@@ -0,0 +1,51 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.batch.processor.BankAccountProcessor;
+import org.jolly.financely.model.Money;
+import org.jolly.financely.model.RawTransaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jolly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankAccountProcessorBenchmark {
+    @Param({"UOB", "GX", "TNG"})
+    private StatementLayout layout;
+    @Param({"1000", "100000", "1000000"})
+    private int lines;
+    private List<RawTransaction> items;
+    private BankAccountProcessor processor;
+
+    @Setup
+    public void setUp() {
+        Money.init(Currency.getInstance("MYR"), RoundingMode.HALF_EVEN);
+        items = StatementGenerator.transactions(layout, lines, 42);
+        processor = layout.processor();
+    }
+
+    @Benchmark
+    public void process(Blackhole bh) {
+        for (RawTransaction item : items) {
+            bh.consume(processor.process(item));
+        }
+    }
+
+    @Benchmark
+    public void mergedLines(Blackhole bh) {
+        for (RawTransaction item : items) {
+            bh.consume(item.getMergedLines(0));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.batch.extractor.DefaultFieldExtractor;
+import org.jolly.financely.batch.extractor.InstalmentExtractor;
+import org.jolly.financely.batch.parser.MoneyParser;
+import org.jolly.financely.model.RawTransaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jolly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldExtractorBenchmark {
+    @Param({"UOB", "GX", "TNG"})
+    private StatementLayout layout;
+    @Param({"1000", "100000", "1000000"})
+    private int lines;
+    private String[] descriptions;
+    private DefaultFieldExtractor instalmentExtractor;
+
+    @Setup
+    public void setUp() {
+        final List<RawTransaction> items = StatementGenerator.transactions(layout, lines, 42);
+        descriptions = items.stream()
+                .map(item -> item.getMergedLines(0))
+                .toArray(String[]::new);
+
+        InstalmentExtractor instalment = new InstalmentExtractor();
+        instalment.init();
+        instalmentExtractor = instalment;
+    }
+
+    @Benchmark
+    public void transferAmount(Blackhole bh) {
+        for (String description : descriptions) {
+            bh.consume(MoneyParser.find(description));
+        }
+    }
+
+    @Benchmark
+    public void instalment(Blackhole bh) {
+        for (String description : descriptions) {
+            bh.consume(instalmentExtractor.getField(description));
+        }
+    }
+}
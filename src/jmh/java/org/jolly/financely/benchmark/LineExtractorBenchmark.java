@@ -0,0 +1,42 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.model.RawTransaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jolly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineExtractorBenchmark {
+    @Param({"UOB", "GX", "TNG"})
+    private StatementLayout layout;
+    @Param({"1000", "100000", "1000000"})
+    private int lines;
+    private String content;
+    private LineExtractor lineExtractor;
+
+    @Setup
+    public void setUp() {
+        content = StatementGenerator.text(layout, lines, 42);
+        lineExtractor = layout.lineExtractor();
+    }
+
+    @Benchmark
+    public void extractLine(Blackhole bh) {
+        final List<RawTransaction> items = new ArrayList<>();
+        lineExtractor.reset(false);
+        bh.consume(lineExtractor.extractLine(content, items, "statement.pdf"));
+        bh.consume(items);
+    }
+}
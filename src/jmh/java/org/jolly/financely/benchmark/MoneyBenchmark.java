@@ -0,0 +1,68 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jolly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+    private List<Money> monies;
+    private Money[] others;
+
+    @Setup
+    public void setUp() {
+        Money.init(Currency.getInstance("MYR"), RoundingMode.HALF_EVEN);
+        final Random random = new Random(42);
+        monies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            monies.add(Money.of(BigDecimal.valueOf(random.nextInt(1_000_000), 2)));
+        }
+        others = monies.toArray(Money[]::new);
+    }
+
+    @Benchmark
+    public Money sum() {
+        return Money.sum(monies);
+    }
+
+    @Benchmark
+    public void plusMinus(Blackhole bh) {
+        for (int i = 1; i < others.length; i++) {
+            bh.consume(others[i].plus(others[i - 1]).minus(others[i]));
+        }
+    }
+
+    @Benchmark
+    public void times(Blackhole bh) {
+        for (Money money : others) {
+            bh.consume(money.times(3));
+            bh.consume(money.times(1.06));
+        }
+    }
+
+    @Benchmark
+    public void equalsHashCode(Blackhole bh) {
+        for (int i = 1; i < others.length; i++) {
+            bh.consume(others[i].equals(others[i - 1]));
+            bh.consume(others[i].hashCode());
+        }
+    }
+}
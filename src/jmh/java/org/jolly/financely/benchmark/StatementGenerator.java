@@ -0,0 +1,81 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.model.RawTransaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic statement text in the layout of a bank, with multi-line transactions, credits, instalments
+ * and lines the extractor has to skip.
+ *
+ * @author jolly
+ */
+final class StatementGenerator {
+    private static final String[] MERCHANTS = {
+            "SHOPEE MALAYSIA KUALA LUMPUR",
+            "GRAB RIDES PETALING JAYA",
+            "TESCO STORES SDN BHD",
+            "DUITNOW_RECEIVE FROM J DOE",
+            "Quick Reload Payment (via Go+)",
+            "Interest earned",
+            "PETRONAS SUBANG JAYA",
+            "IKEA CHERAS"
+    };
+
+    private StatementGenerator() {}
+
+    static String text(StatementLayout layout, int lines, long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder sb = new StringBuilder(lines * 48);
+        sb.append("Statement of Account\n");
+        if (layout.startReadingText != null) {
+            sb.append(layout.startReadingText).append(" Description Amount\n");
+        }
+
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        int written = 2;
+        while (written < lines - 1) {
+            if (random.nextInt(20) == 0) {
+                sb.append(layout.skippedLine).append('\n');
+                written++;
+                continue;
+            }
+            if (random.nextInt(4) == 0) {
+                date = date.plusDays(1);
+                if (date.getYear() > 2024) {
+                    date = LocalDate.of(2024, 1, 1);
+                }
+            }
+            final boolean credit = random.nextInt(5) == 0;
+            final String amount = random.nextInt(3) == 0
+                    ? "%d,%03d.%02d".formatted(1 + random.nextInt(99), random.nextInt(1000), random.nextInt(100))
+                    : "%d.%02d".formatted(random.nextInt(1000), random.nextInt(100));
+            sb.append(layout.date(date)).append(' ')
+                    .append(MERCHANTS[random.nextInt(MERCHANTS.length)]);
+            if (random.nextInt(10) == 0) {
+                sb.append(" %02d/12".formatted(1 + random.nextInt(12)));
+            }
+            sb.append(' ').append(layout.amount(amount, credit)).append('\n');
+            written++;
+
+            // continuation lines of the same transaction
+            for (int i = random.nextInt(3); i > 0 && written < lines - 1; i--) {
+                sb.append("REF ").append(random.nextInt(1_000_000)).append('\n');
+                written++;
+            }
+        }
+        if (layout.endReadingText != null) {
+            sb.append(layout.endReadingText).append('\n');
+        }
+        return sb.toString();
+    }
+
+    static List<RawTransaction> transactions(StatementLayout layout, int lines, long seed) {
+        final List<RawTransaction> items = new ArrayList<>();
+        layout.lineExtractor().extractLine(text(layout, lines, seed), items, layout.name().toLowerCase() + ".pdf");
+        return items;
+    }
+}
@@ -0,0 +1,96 @@
+package org.jolly.financely.benchmark;
+
+import org.jolly.financely.batch.extractor.DefaultLineExtractor;
+import org.jolly.financely.batch.extractor.InstalmentExtractor;
+import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.layout.BankLayout;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.batch.processor.BankAccountProcessor;
+import org.jolly.financely.constant.Bank;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Layouts of the bank statement jobs, together with the date format of their transaction lines, for generating and
+ * parsing synthetic statements.
+ *
+ * @author jolly
+ */
+public enum StatementLayout {
+    UOB(Bank.UOB, "dd MMM", "Transaction Date", "END OF STATEMENT", "SUB-TOTAL 1,024.00") {
+        @Override
+        String amount(String amount, boolean credit) {
+            return credit ? amount + " CR" : amount;
+        }
+    },
+    GX(Bank.GXB, "d MMM", "Transaction description", null, "Page 2 of 9") {
+        @Override
+        String amount(String amount, boolean credit) {
+            return (credit ? "+" : "-") + amount;
+        }
+    },
+    TNG(Bank.TNG, "d/M/yyyy", null, null, "*This is a system generated email. Please do not reply.") {
+        @Override
+        String amount(String amount, boolean credit) {
+            return amount;
+        }
+    };
+
+    private final Bank bank;
+    private final DateTimeFormatter lineDateFormat;
+    final String startReadingText;
+    final String endReadingText;
+    final String skippedLine;
+
+    StatementLayout(Bank bank, String lineDatePattern, String startReadingText, String endReadingText, String skippedLine) {
+        this.bank = bank;
+        this.lineDateFormat = DateTimeFormatter.ofPattern(lineDatePattern, Locale.ENGLISH);
+        this.startReadingText = startReadingText;
+        this.endReadingText = endReadingText;
+        this.skippedLine = skippedLine;
+    }
+
+    /**
+     * @return the amount as printed on the statement for a debit or credit
+     */
+    abstract String amount(String amount, boolean credit);
+
+    String date(LocalDate date) {
+        return lineDateFormat.format(date);
+    }
+
+    /**
+     * @return the layout compiled from the profile the job of the bank reads its statements by
+     */
+    BankLayout layout() {
+        try {
+            return new LayoutRegistry(new DefaultResourceLoader(), "classpath:layouts/").layout(bank);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    LineExtractor lineExtractor() {
+        LineExtractor lineExtractor = new DefaultLineExtractor();
+        lineExtractor.rules(layout().lineRules());
+        return lineExtractor;
+    }
+
+    BankAccountProcessor processor() {
+        InstalmentExtractor instalmentExtractor = new InstalmentExtractor();
+        instalmentExtractor.init();
+
+        BankAccountProcessor processor = new BankAccountProcessor(instalmentExtractor, BatchMetrics.noop());
+        processor.setBank(bank);
+        processor.setDefaultYear(2024);
+        final BankLayout layout = layout();
+        processor.setLayout(() -> layout);
+        return processor;
+    }
+}
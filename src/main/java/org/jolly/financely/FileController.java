@@ -1,15 +1,36 @@
 package org.jolly.financely;
 
+import org.jolly.financely.annotation.LogExecutionTime;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.response.UploadFileResponse;
+import org.jolly.financely.upload.IngestionRouter;
+import org.jolly.financely.upload.UploadStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
 
 /**
  * @author jolly
@@ -18,11 +39,77 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/file")
 public class FileController {
     private static final Logger log = LoggerFactory.getLogger(FileController.class);
+    private final UploadStore uploadStore;
+    private final IngestionRouter ingestionRouter;
+
+    public FileController(UploadStore uploadStore, IngestionRouter ingestionRouter) {
+        this.uploadStore = uploadStore;
+        this.ingestionRouter = ingestionRouter;
+    }
 
+    /**
+     * Stores the statement and launches the job of its bank on it, responding as soon as the job is started with
+     * where to follow it.
+     *
+     * @param bank bank the statement is from, detected from its first page if not given
+     */
+    @LogExecutionTime
     @PostMapping(value = "/upload", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<UploadFileResponse> uploadStatement(@RequestParam MultipartFile file) {
-          log.info("uploaded file: {}, type: {}, size: {}", file.getName(), file.getContentType(), file.getSize());
+    public ResponseEntity<UploadFileResponse> uploadStatement(@RequestParam MultipartFile file,
+                                                              @RequestParam(required = false) Bank bank) throws IOException, JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+        log.info("uploaded file: {}, type: {}, size: {}, bank: {}", file.getOriginalFilename(), file.getContentType(),
+                file.getSize(), bank);
+        if (bank != null && !ingestionRouter.isSupported(bank)) {
+            return ResponseEntity.badRequest()
+                    .body(new UploadFileResponse.Builder()
+                            .fileName(file.getOriginalFilename())
+                            .uploadType(bank)
+                            .message("statements of bank: " + bank + " are not supported")
+                            .build());
+        }
+
+        final UploadStore.StoredFile stored = uploadStore.store(file);
+        final IngestionRouter.Route route = ingestionRouter.route(stored, bank);
+        final String fileName = stored.path().getFileName().toString();
+        final UploadFileResponse.Builder response = new UploadFileResponse.Builder()
+                .fileName(fileName)
+                .fileType(file.getContentType())
+                .size(stored.size())
+                .uploadType(route.detection().bank())
+                .fileDownloadUri(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/file/{fileName}")
+                        .buildAndExpand(fileName)
+                        .toUriString());
+
+        final JobExecution jobExecution = route.jobExecution();
+        if (jobExecution == null) {
+            final String message = route.detection().bank() == null
+                    ? "bank could not be detected, pass it as a parameter"
+                    : "detected bank: %s with confidence: %.2f, %s".formatted(route.detection().bank(),
+                    route.detection().confidence(), ingestionRouter.isSupported(route.detection().bank())
+                            ? "pass it as a parameter if so" : "its statements are not supported");
+            return ResponseEntity.unprocessableEntity()
+                    .body(response.message(message).build());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/jobs/" + jobExecution.getId()))
+                .body(response
+                        .message("sha256: %s, bank confidence: %.2f".formatted(stored.sha256(),
+                                route.detection().confidence()))
+                        .jobExecutionId(jobExecution.getId())
+                        .build());
+    }
 
-          return ResponseEntity.ok(new UploadFileResponse.Builder().build());
+    @GetMapping("/{fileName}")
+    public ResponseEntity<Resource> download(@PathVariable String fileName) {
+        final Path file = uploadStore.find(fileName);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        final Resource resource = new FileSystemResource(file);
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(resource);
     }
 }
@@ -0,0 +1,69 @@
+package org.jolly.financely;
+
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.response.JobExecutionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author jolly
+ */
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+    private static final Logger log = LoggerFactory.getLogger(JobController.class);
+    private final JobExplorer jobExplorer;
+    private final JobCompletionNotifier jobCompletionNotifier;
+
+    public JobController(JobExplorer jobExplorer, JobCompletionNotifier jobCompletionNotifier) {
+        this.jobExplorer = jobExplorer;
+        this.jobCompletionNotifier = jobCompletionNotifier;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobExecutionResponse> status(@PathVariable long id) {
+        final JobExecution jobExecution = jobExplorer.getJobExecution(id);
+        if (jobExecution == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(JobExecutionResponse.of(jobExecution));
+    }
+
+    /**
+     * Long-polls for the job execution to finish. Responds once the job completes, or with the current status when
+     * the timeout elapses first.
+     */
+    @GetMapping("/{id}/completion")
+    public DeferredResult<ResponseEntity<JobExecutionResponse>> completion(@PathVariable long id,
+                                                                          @RequestParam(defaultValue = "30000") long timeout) {
+        final DeferredResult<ResponseEntity<JobExecutionResponse>> result = new DeferredResult<>(timeout, () -> status(id));
+        if (jobExplorer.getJobExecution(id) == null) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+
+        final CompletableFuture<JobExecution> completion = jobCompletionNotifier.completion(id);
+        completion.thenAccept(jobExecution -> result.setResult(ResponseEntity.ok(JobExecutionResponse.of(jobExecution))));
+        // also on timeout, so a job that never finishes does not keep the future
+        result.onCompletion(() -> jobCompletionNotifier.release(id, completion));
+
+        // re-read after registering, the job may have finished in between
+        final JobExecution jobExecution = jobExplorer.getJobExecution(id);
+        if (jobExecution != null && !jobExecution.isRunning()) {
+            log.debug("job execution: {} already finished with status: {}", id, jobExecution.getStatus());
+            jobCompletionNotifier.complete(jobExecution);
+        }
+        return result;
+    }
+}
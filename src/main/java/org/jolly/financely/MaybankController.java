@@ -1,23 +1,25 @@
 package org.jolly.financely;
 
 import org.jolly.financely.annotation.LogExecutionTime;
+import org.jolly.financely.batch.launch.JobLaunchService;
 import org.jolly.financely.constant.Bank;
 import org.jolly.financely.constant.MDCKey;
+import org.jolly.financely.response.JobExecutionResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.batch.core.*;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.net.URI;
 
 /**
  * @author jolly
@@ -26,31 +28,28 @@ import java.util.Map;
 @RequestMapping("/mbb")
 public class MaybankController {
     private static final Logger log = LoggerFactory.getLogger(MaybankController.class);
-    private final JobLauncher jobLauncher;
+    private final JobLaunchService jobLaunchService;
     private final Job job;
+    private final Job partitionedJob;
 
-    public MaybankController(JobLauncher jobLauncher, @Qualifier("mbbBankJob") Job job) {
-        this.jobLauncher = jobLauncher;
+    public MaybankController(JobLaunchService jobLaunchService,
+                             @Qualifier("mbbBankJob") Job job,
+                             @Qualifier("mbbBankPartitionedJob") Job partitionedJob) {
+        this.jobLaunchService = jobLaunchService;
         this.job = job;
+        this.partitionedJob = partitionedJob;
     }
 
     @LogExecutionTime
     @GetMapping("/load")
-    public BatchStatus load() throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+    public ResponseEntity<JobExecutionResponse> load(@RequestParam(defaultValue = "false") boolean partitioned) throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
         MDC.put(MDCKey.BANK.name(), Bank.MBB.name());
-        Map<String, JobParameter<?>> parameters = new HashMap<>();
-        parameters.put("time", new JobParameter<>(System.currentTimeMillis(), Long.class));
-        JobParameters jobParameters = new JobParameters(parameters);
-
-        JobExecution jobExecution = jobLauncher.run(job, jobParameters);
+        JobExecution jobExecution = jobLaunchService.launch(partitioned ? partitionedJob : job);
         log.debug("batch status: {}", jobExecution.getStatus());
-
-        while (jobExecution.isRunning()) {
-            log.debug("batch is running");
-            log.debug("...");
-        }
         MDC.remove(MDCKey.BANK.name());
 
-        return jobExecution.getStatus();
+        return ResponseEntity.accepted()
+                .location(URI.create("/jobs/" + jobExecution.getId()))
+                .body(JobExecutionResponse.of(jobExecution));
     }
 }
@@ -0,0 +1,92 @@
+package org.jolly.financely;
+
+import org.jolly.financely.aggregate.ColumnFilter;
+import org.jolly.financely.aggregate.Dimension;
+import org.jolly.financely.aggregate.GroupTotal;
+import org.jolly.financely.aggregate.TransactionColumnStore;
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.repository.ExpenseRepository;
+import org.jolly.financely.repository.TransactionRepository;
+import org.jolly.financely.repository.projection.DescriptionTotal;
+import org.jolly.financely.repository.projection.InstalmentSchedule;
+import org.jolly.financely.repository.projection.MonthlyBankTotal;
+import org.jolly.financely.repository.projection.MonthlyCategoryTotal;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only aggregates over loaded transactions and expenses. Summaries are computed over the in-memory transaction
+ * columns, everything else by the database.
+ *
+ * @author jolly
+ */
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+    private final TransactionRepository transactionRepository;
+    private final ExpenseRepository expenseRepository;
+    private final TransactionColumnStore transactionColumnStore;
+
+    public ReportController(TransactionRepository transactionRepository, ExpenseRepository expenseRepository,
+                            TransactionColumnStore transactionColumnStore) {
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.transactionColumnStore = transactionColumnStore;
+    }
+
+    @GetMapping("/transactions/monthly")
+    public List<MonthlyBankTotal> monthlyTotals(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(required = false) Bank bank) {
+        if (bank == null) {
+            return transactionRepository.findMonthlyTotals(from, to);
+        }
+        return transactionRepository.findMonthlyTotals(bank, from, to);
+    }
+
+    @GetMapping("/transactions/top-descriptions")
+    public List<DescriptionTotal> topDescriptions(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                  @RequestParam(required = false) Bank bank,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        final PageRequest top = PageRequest.of(0, limit);
+        if (bank == null) {
+            return transactionRepository.findTopDescriptions(from, to, top);
+        }
+        return transactionRepository.findTopDescriptions(bank, from, to, top);
+    }
+
+    /**
+     * Debit and credit totals per currency, optionally grouped by bank, month and description. Dates and banks are
+     * optional filters.
+     */
+    @GetMapping("/transactions/summary")
+    public List<GroupTotal> summary(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(required = false) Set<Bank> bank,
+                                    @RequestParam(required = false) Set<Dimension> groupBy) {
+        final Set<Dimension> dimensions = groupBy == null || groupBy.isEmpty()
+                ? EnumSet.noneOf(Dimension.class) : EnumSet.copyOf(groupBy);
+        return transactionColumnStore.columns().aggregate(new ColumnFilter(from, to, bank), dimensions);
+    }
+
+    @GetMapping("/transactions/instalments")
+    public List<InstalmentSchedule> instalmentSchedules() {
+        return transactionRepository.findInstalmentSchedules();
+    }
+
+    @GetMapping("/expenses/monthly")
+    public List<MonthlyCategoryTotal> monthlyCategoryTotals(@RequestParam int year) {
+        return expenseRepository.findMonthlyCategoryTotals(Year.of(year));
+    }
+}
@@ -0,0 +1,87 @@
+package org.jolly.financely.aggregate;
+
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @author jolly
+ */
+final class AggregateTask extends RecursiveTask<GroupAccumulator> {
+    static final int LEAF_SIZE = 1 << 14;
+    static final int NO_MONTH = 0;
+    static final int NO_DESCRIPTION = -1;
+    private final TransactionColumns columns;
+    private final ColumnFilter filter;
+    private final Set<Dimension> groupBy;
+    private final int from;
+    private final int to;
+
+    AggregateTask(TransactionColumns columns, ColumnFilter filter, Set<Dimension> groupBy, int from, int to) {
+        this.columns = columns;
+        this.filter = filter;
+        this.groupBy = groupBy;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected GroupAccumulator compute() {
+        if (to - from <= LEAF_SIZE) {
+            return scan();
+        }
+        final int mid = (from + to) >>> 1;
+        final AggregateTask left = new AggregateTask(columns, filter, groupBy, from, mid);
+        left.fork();
+        final GroupAccumulator right = new AggregateTask(columns, filter, groupBy, mid, to).compute();
+        return left.join().merge(right);
+    }
+
+    private GroupAccumulator scan() {
+        final int fromDay = filter.fromDay();
+        final int toDay = filter.toDay();
+        final long bankMask = filter.bankMask();
+        final boolean byBank = groupBy.contains(Dimension.BANK);
+        final boolean byMonth = groupBy.contains(Dimension.MONTH);
+        final boolean byDescription = groupBy.contains(Dimension.DESCRIPTION);
+        final int[] epochDay = columns.epochDay;
+        final byte[] bank = columns.bank;
+
+        final GroupAccumulator totals = new GroupAccumulator();
+        for (int i = from; i < to; i++) {
+            final int day = epochDay[i];
+            if (day < fromDay || day > toDay || (bankMask >>> bank[i] & 1) == 0) {
+                continue;
+            }
+            // currency id in bits 0-9, bank id in 10-15, epoch month in 16-31 and description id + 1 in 32-63, a
+            // dimension that is not grouped by is left 0
+            long key = columns.currency[i];
+            if (byBank) {
+                key |= (long) bank[i] << 10;
+            }
+            if (byMonth) {
+                key |= (long) columns.epochMonth[i] << 16;
+            }
+            if (byDescription) {
+                key |= (columns.description[i] + 1L) << 32;
+            }
+            totals.add(key, columns.debit[i], columns.credit[i], 1);
+        }
+        return totals;
+    }
+
+    static int currencyOf(long key) {
+        return (int) (key & 0x3FF);
+    }
+
+    static int bankOf(long key) {
+        return (int) (key >>> 10 & 0x3F);
+    }
+
+    static int monthOf(long key) {
+        return (int) (key >>> 16 & 0xFFFF);
+    }
+
+    static int descriptionOf(long key) {
+        return (int) (key >>> 32) - 1;
+    }
+}
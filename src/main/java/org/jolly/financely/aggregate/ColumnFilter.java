@@ -0,0 +1,42 @@
+package org.jolly.financely.aggregate;
+
+import org.jolly.financely.constant.Bank;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Rows dated within the range, both ends inclusive and optional, of any of the banks, or of any bank when none are
+ * given.
+ *
+ * @author jolly
+ */
+public record ColumnFilter(LocalDate from, LocalDate to, Set<Bank> banks) {
+    public static final ColumnFilter ALL = new ColumnFilter(null, null, Set.of());
+
+    public ColumnFilter {
+        banks = banks == null ? Set.of() : Set.copyOf(banks);
+    }
+
+    int fromDay() {
+        return from == null ? Integer.MIN_VALUE : Math.toIntExact(from.toEpochDay());
+    }
+
+    int toDay() {
+        return to == null ? Integer.MAX_VALUE : Math.toIntExact(to.toEpochDay());
+    }
+
+    /**
+     * Bit set of the matching bank ids as stored in the columns.
+     */
+    long bankMask() {
+        if (banks.isEmpty()) {
+            return -1L;
+        }
+        long mask = 0;
+        for (Bank bank : banks) {
+            mask |= 1L << (bank.ordinal() + 1);
+        }
+        return mask;
+    }
+}
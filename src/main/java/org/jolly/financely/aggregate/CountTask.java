@@ -0,0 +1,44 @@
+package org.jolly.financely.aggregate;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the rows of a range that match a filter, splitting the range like {@link AggregateTask}.
+ *
+ * @author jolly
+ */
+final class CountTask extends RecursiveTask<Long> {
+    private final TransactionColumns columns;
+    private final ColumnFilter filter;
+    private final int from;
+    private final int to;
+
+    CountTask(TransactionColumns columns, ColumnFilter filter, int from, int to) {
+        this.columns = columns;
+        this.filter = filter;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected Long compute() {
+        if (to - from <= AggregateTask.LEAF_SIZE) {
+            final int fromDay = filter.fromDay();
+            final int toDay = filter.toDay();
+            final long bankMask = filter.bankMask();
+            long count = 0;
+            for (int i = from; i < to; i++) {
+                final int day = columns.epochDay[i];
+                if (day >= fromDay && day <= toDay && (bankMask >>> columns.bank[i] & 1) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        final int mid = (from + to) >>> 1;
+        final CountTask left = new CountTask(columns, filter, from, mid);
+        left.fork();
+        final long right = new CountTask(columns, filter, mid, to).compute();
+        return left.join() + right;
+    }
+}
@@ -0,0 +1,12 @@
+package org.jolly.financely.aggregate;
+
+/**
+ * What transactions can be grouped by, besides their currency.
+ *
+ * @author jolly
+ */
+public enum Dimension {
+    BANK,
+    MONTH,
+    DESCRIPTION
+}
@@ -0,0 +1,94 @@
+package org.jolly.financely.aggregate;
+
+/**
+ * Open addressing hash table of running debit and credit totals and counts by group key, without boxing.
+ *
+ * @author jolly
+ */
+final class GroupAccumulator {
+    private static final int INITIAL_CAPACITY = 16;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] debit = new long[INITIAL_CAPACITY];
+    private long[] credit = new long[INITIAL_CAPACITY];
+    private long[] count = new long[INITIAL_CAPACITY];
+    private boolean[] used = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @throws ArithmeticException if a total overflows a long
+     */
+    void add(long key, long debitAmount, long creditAmount, long n) {
+        int slot = slot(keys, used, key);
+        if (!used[slot]) {
+            if (size * 2 >= keys.length) {
+                grow();
+                slot = slot(keys, used, key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        debit[slot] = Math.addExact(debit[slot], debitAmount);
+        credit[slot] = Math.addExact(credit[slot], creditAmount);
+        count[slot] += n;
+    }
+
+    GroupAccumulator merge(GroupAccumulator other) {
+        if (other.size > size) {
+            return other.merge(this);
+        }
+        other.forEach(this::add);
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(GroupConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], debit[i], credit[i], count[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final long[] oldDebit = debit;
+        final long[] oldCredit = credit;
+        final long[] oldCount = count;
+        final boolean[] oldUsed = used;
+        final int capacity = oldKeys.length * 2;
+        keys = new long[capacity];
+        debit = new long[capacity];
+        credit = new long[capacity];
+        count = new long[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                final int slot = slot(keys, used, oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                debit[slot] = oldDebit[i];
+                credit[slot] = oldCredit[i];
+                count[slot] = oldCount[i];
+            }
+        }
+    }
+
+    private static int slot(long[] keys, boolean[] used, long key) {
+        final int mask = keys.length - 1;
+        final long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    interface GroupConsumer {
+        void accept(long key, long debit, long credit, long count);
+    }
+}
@@ -0,0 +1,22 @@
+package org.jolly.financely.aggregate;
+
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.model.Money;
+
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.Currency;
+
+/**
+ * Debit and credit totals of one group in one currency. Dimensions that were not grouped by are null.
+ *
+ * @author jolly
+ */
+public record GroupTotal(Bank bank, YearMonth month, String description, Currency currency, Money debit,
+                         Money credit, long count) {
+    static final Comparator<GroupTotal> ORDER = Comparator
+            .comparing(GroupTotal::month, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupTotal::bank, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupTotal::description, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(t -> t.currency().getCurrencyCode());
+}
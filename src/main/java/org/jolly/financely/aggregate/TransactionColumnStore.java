@@ -0,0 +1,81 @@
+package org.jolly.financely.aggregate;
+
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.repository.TransactionRepository;
+import org.jolly.financely.repository.projection.ColumnarTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Holds the columns of all stored transactions, loaded from the database on first use and again on the first use
+ * after a job that wrote transactions finished.
+ *
+ * @author jolly
+ */
+@Component
+public class TransactionColumnStore {
+    private static final Logger log = LoggerFactory.getLogger(TransactionColumnStore.class);
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    // bumped by each invalidation, so a job finishing while the columns load marks them stale again
+    private final AtomicLong generation = new AtomicLong();
+    private volatile TransactionColumns columns;
+    // generation the columns were loaded at, none until loaded
+    private volatile long loadedGeneration = -1;
+
+    public TransactionColumnStore(TransactionRepository transactionRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  JobCompletionNotifier jobCompletionNotifier) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        jobCompletionNotifier.onCompletion(this::invalidate);
+    }
+
+    public TransactionColumns columns() {
+        if (loadedGeneration != generation.get()) {
+            synchronized (this) {
+                final long current = generation.get();
+                if (loadedGeneration != current) {
+                    // only marked loaded once the load succeeds, so a failed load is retried on the next use
+                    columns = load();
+                    loadedGeneration = current;
+                }
+            }
+        }
+        return columns;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private void invalidate(JobExecution jobExecution) {
+        final long written = jobExecution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum();
+        if (written > 0) {
+            invalidate();
+        }
+    }
+
+    private TransactionColumns load() {
+        final long start = System.currentTimeMillis();
+        final TransactionColumns loaded = transactionTemplate.execute(status -> {
+            final TransactionColumns.Builder builder = TransactionColumns.builder();
+            try (Stream<ColumnarTransaction> rows = transactionRepository.streamColumnar()) {
+                rows.forEach(row -> builder.add(row.getDate(), row.getBank(), row.getDebit(), row.getCredit(),
+                        row.getDescription()));
+            }
+            return builder.build();
+        });
+        log.info("loaded {} transactions into columns in {} ms", loaded.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+}
@@ -0,0 +1,214 @@
+package org.jolly.financely.aggregate;
+
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.exception.MismatchCurrencyException;
+import org.jolly.financely.model.Money;
+import org.jolly.financely.model.Transaction;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author jolly
+ */
+public final class TransactionColumns {
+    static final int NO_BANK = 0;
+    static final int MAX_CURRENCIES = 1 << 10;
+    static final int MONTH_OFFSET = 1 << 15;
+    private static final TransactionColumns EMPTY = builder().build();
+    final int size;
+    final int[] epochDay;
+    // months since 1970-01 + MONTH_OFFSET, so that it is positive
+    final int[] epochMonth;
+    // bank ordinal + 1, NO_BANK when not known
+    final byte[] bank;
+    final long[] debit;
+    final long[] credit;
+    final short[] currency;
+    final int[] description;
+    private final Currency[] currencies;
+    private final String[] descriptions;
+
+    private TransactionColumns(Builder builder) {
+        this.size = builder.size;
+        this.epochDay = Arrays.copyOf(builder.epochDay, size);
+        this.epochMonth = Arrays.copyOf(builder.epochMonth, size);
+        this.bank = Arrays.copyOf(builder.bank, size);
+        this.debit = Arrays.copyOf(builder.debit, size);
+        this.credit = Arrays.copyOf(builder.credit, size);
+        this.currency = Arrays.copyOf(builder.currency, size);
+        this.description = Arrays.copyOf(builder.description, size);
+        this.currencies = builder.currencies.toArray(Currency[]::new);
+        this.descriptions = builder.descriptions.toArray(String[]::new);
+    }
+
+    public static TransactionColumns empty() {
+        return EMPTY;
+    }
+
+    public static TransactionColumns of(Iterable<? extends Transaction> transactions) {
+        final Builder builder = builder();
+        for (Transaction transaction : transactions) {
+            builder.add(transaction);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Totals of the rows matching the filter, grouped by the given dimensions and always by currency, in the common
+     * fork-join pool.
+     */
+    public List<GroupTotal> aggregate(ColumnFilter filter, Set<Dimension> groupBy) {
+        return aggregate(filter, groupBy, ForkJoinPool.commonPool());
+    }
+
+    public List<GroupTotal> aggregate(ColumnFilter filter, Set<Dimension> groupBy, ForkJoinPool pool) {
+        final GroupAccumulator totals = pool.invoke(new AggregateTask(this, filter, groupBy, 0, size));
+        final List<GroupTotal> result = new ArrayList<>(totals.size());
+        totals.forEach((key, debitTotal, creditTotal, count) -> result.add(toGroupTotal(key, debitTotal, creditTotal, count)));
+        result.sort(GroupTotal.ORDER);
+        return result;
+    }
+
+    /**
+     * Number of rows matching the filter.
+     */
+    public long count(ColumnFilter filter) {
+        return ForkJoinPool.commonPool().invoke(new CountTask(this, filter, 0, size));
+    }
+
+    private GroupTotal toGroupTotal(long key, long debitTotal, long creditTotal, long count) {
+        final Currency groupCurrency = currencies[AggregateTask.currencyOf(key)];
+        final int bankId = AggregateTask.bankOf(key);
+        final int month = AggregateTask.monthOf(key);
+        final int descriptionId = AggregateTask.descriptionOf(key);
+        return new GroupTotal(
+                bankId == NO_BANK ? null : Bank.values()[bankId - 1],
+                month == AggregateTask.NO_MONTH ? null : YearMonth.of(1970, 1).plusMonths(month - MONTH_OFFSET),
+                descriptionId == AggregateTask.NO_DESCRIPTION ? null : descriptions[descriptionId],
+                groupCurrency,
+                Money.ofMinor(debitTotal, groupCurrency),
+                Money.ofMinor(creditTotal, groupCurrency),
+                count);
+    }
+
+    /**
+     * Collects rows one at a time. Can be used directly as the writer, or one of the writers, of a batch step to
+     * build the columns straight from a statement run.
+     */
+    public static final class Builder implements ItemWriter<Transaction> {
+        private static final int INITIAL_CAPACITY = 1024;
+        private int size;
+        private int[] epochDay = new int[INITIAL_CAPACITY];
+        private int[] epochMonth = new int[INITIAL_CAPACITY];
+        private byte[] bank = new byte[INITIAL_CAPACITY];
+        private long[] debit = new long[INITIAL_CAPACITY];
+        private long[] credit = new long[INITIAL_CAPACITY];
+        private short[] currency = new short[INITIAL_CAPACITY];
+        private int[] description = new int[INITIAL_CAPACITY];
+        private final List<Currency> currencies = new ArrayList<>();
+        private final Map<Currency, Integer> currencyIds = new HashMap<>();
+        private final List<String> descriptions = new ArrayList<>();
+        private final Map<String, Integer> descriptionIds = new HashMap<>();
+
+        private Builder() {}
+
+        public Builder add(Transaction transaction) {
+            return add(transaction.getDate(), transaction.getBank(), transaction.getDebit(), transaction.getCredit(),
+                    transaction.getDescription());
+        }
+
+        /**
+         * Rows without a debit or credit carry no amount in any currency and are left out.
+         *
+         * @throws MismatchCurrencyException if the debit and credit are in different currencies
+         * @throws ArithmeticException if an amount does not fit in a long of minor units
+         */
+        public Builder add(LocalDate date, Bank bank, Money debit, Money credit, String description) {
+            Objects.requireNonNull(date, "date");
+            if (debit == null && credit == null) {
+                return this;
+            }
+            if (debit != null && credit != null && !debit.isSameCurrency(credit)) {
+                throw new MismatchCurrencyException(credit.getCurrency() + " doesn't match the debit currency: " + debit.getCurrency());
+            }
+            final Currency rowCurrency = debit != null ? debit.getCurrency() : credit.getCurrency();
+            final int month = Math.toIntExact((date.getYear() - 1970L) * 12 + date.getMonthValue() - 1 + MONTH_OFFSET);
+            if (month <= AggregateTask.NO_MONTH || month > 0xFFFF) {
+                throw new IllegalArgumentException("date out of range: " + date);
+            }
+
+            ensureCapacity();
+            this.epochDay[size] = Math.toIntExact(date.toEpochDay());
+            this.epochMonth[size] = month;
+            this.bank[size] = (byte) (bank == null ? NO_BANK : bank.ordinal() + 1);
+            this.debit[size] = debit == null ? 0 : debit.toMinorUnits();
+            this.credit[size] = credit == null ? 0 : credit.toMinorUnits();
+            this.currency[size] = (short) currencyId(rowCurrency);
+            this.description[size] = descriptionIds.computeIfAbsent(description, d -> {
+                descriptions.add(d);
+                return descriptions.size() - 1;
+            });
+            size++;
+            return this;
+        }
+
+        @Override
+        public synchronized void write(@NonNull Chunk<? extends Transaction> chunk) {
+            for (Transaction transaction : chunk) {
+                add(transaction);
+            }
+        }
+
+        public synchronized TransactionColumns build() {
+            return new TransactionColumns(this);
+        }
+
+        private int currencyId(Currency c) {
+            final Integer id = currencyIds.get(c);
+            if (id != null) {
+                return id;
+            }
+            if (currencies.size() == MAX_CURRENCIES) {
+                throw new IllegalStateException("more than " + MAX_CURRENCIES + " currencies");
+            }
+            currencies.add(c);
+            currencyIds.put(c, currencies.size() - 1);
+            return currencies.size() - 1;
+        }
+
+        private void ensureCapacity() {
+            if (size < epochDay.length) {
+                return;
+            }
+            final int capacity = epochDay.length * 2;
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            epochMonth = Arrays.copyOf(epochMonth, capacity);
+            bank = Arrays.copyOf(bank, capacity);
+            debit = Arrays.copyOf(debit, capacity);
+            credit = Arrays.copyOf(credit, capacity);
+            currency = Arrays.copyOf(currency, capacity);
+            description = Arrays.copyOf(description, capacity);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.jolly.financely.batch.config;
+
+import org.slf4j.MDC;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+
+/**
+ * @author jolly
+ */
+@Configuration
+public class BatchConfiguration {
+    /**
+     * Runs a task with the MDC of the thread that submitted it, e.g. the bank a controller launched a job for.
+     */
+    private static final TaskDecorator MDC_PROPAGATION = task -> {
+        final Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    };
+    @Value("${batch.partition.concurrency:4}")
+    private int partitionConcurrency;
+    @Value("${batch.job.concurrency:8}")
+    private int jobConcurrency;
+    @Value("${batch.job.queue-capacity:16}")
+    private int jobQueueCapacity;
+    @Value("${batch.pdf.strip-concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int stripConcurrency;
+
+    /**
+     * Runs the worker steps of a partitioned job, one virtual thread per statement file. The concurrency limit keeps
+     * the number of files parsed at once, and so the connections held by their writers, bounded.
+     */
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("partition-");
+        taskExecutor.setVirtualThreads(true);
+        taskExecutor.setConcurrencyLimit(partitionConcurrency);
+        taskExecutor.setTaskDecorator(MDC_PROPAGATION);
+        return taskExecutor;
+    }
+
+    /**
+     * Runs launched jobs on a bounded pool, each carrying the MDC of the launching thread. Jobs past the concurrency
+     * wait in a bounded queue, and once that is full a launch is rejected rather than blocking the request thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("job-");
+        taskExecutor.setCorePoolSize(jobConcurrency);
+        taskExecutor.setMaxPoolSize(jobConcurrency);
+        taskExecutor.setQueueCapacity(jobQueueCapacity);
+        taskExecutor.setTaskDecorator(MDC_PROPAGATION);
+        return taskExecutor;
+    }
+
+    /**
+     * Strips page ranges of a statement in parallel for readers with more than one strip worker. Stripping is CPU
+     * bound, so this is a fixed pool of platform threads shared by all readers.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pageStripTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("strip-");
+        taskExecutor.setCorePoolSize(stripConcurrency);
+        taskExecutor.setMaxPoolSize(stripConcurrency);
+        taskExecutor.setDaemon(true);
+        return taskExecutor;
+    }
+
+    /**
+     * Returns as soon as the job execution is created, the job itself runs on {@link #jobTaskExecutor()}.
+     */
+    @Bean
+    public JobLauncher asyncJobLauncher(JobRepository jobRepository) throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(jobTaskExecutor());
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher;
+    }
+}
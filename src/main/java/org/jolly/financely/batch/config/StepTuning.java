@@ -0,0 +1,142 @@
+package org.jolly.financely.batch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.builder.SynchronizedItemStreamReaderBuilder;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.CompositeCompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.repeat.policy.TimeoutTerminationPolicy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author jolly
+ */
+@Component
+public class StepTuning {
+    private static final Logger log = LoggerFactory.getLogger(StepTuning.class);
+    private static final String PREFIX = "batch.step.";
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private final Environment environment;
+    private final Map<String, Settings> settings = new ConcurrentHashMap<>();
+
+    public StepTuning(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * @param job key of the job in the properties, e.g. <code>uob</code>
+     */
+    public Settings forJob(String job) {
+        return settings.computeIfAbsent(job, this::load);
+    }
+
+    private Settings load(String job) {
+        final int chunkSize = property(job, "chunk-size", Integer.class, DEFAULT_CHUNK_SIZE);
+        final Duration commitInterval = property(job, "commit-interval", Duration.class, null);
+        final int concurrency = property(job, "concurrency", Integer.class, 1);
+        log.info("step tuning of job: {}, chunk size: {}, commit interval: {}, concurrency: {}",
+                job, chunkSize, commitInterval, concurrency);
+        return new Settings(job, chunkSize, commitInterval, concurrency);
+    }
+
+    private <T> T property(String job, String key, Class<T> type, T defaultValue) {
+        final T value = environment.getProperty(PREFIX + job + "." + key, type);
+        return value != null ? value : environment.getProperty(PREFIX + key, type, defaultValue);
+    }
+
+    public static final class Settings {
+        private final String job;
+        private final int chunkSize;
+        private final Duration commitInterval;
+        private final int concurrency;
+        private TaskExecutor taskExecutor;
+
+        Settings(String job, int chunkSize, Duration commitInterval, int concurrency) {
+            Assert.isTrue(chunkSize > 0, "chunk size must be positive");
+            Assert.isTrue(commitInterval == null || commitInterval.isPositive(), "commit interval must be positive");
+            Assert.isTrue(concurrency > 0, "concurrency must be positive");
+            this.job = job;
+            this.chunkSize = chunkSize;
+            this.commitInterval = commitInterval;
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * Starts a chunk-oriented step, on the executor of the job when it is multi-threaded.
+         */
+        public <I, O> SimpleStepBuilder<I, O> chunk(String name, JobRepository jobRepository,
+                                                    PlatformTransactionManager transactionManager) {
+            final SimpleStepBuilder<I, O> builder = singleThreadedChunk(name, jobRepository, transactionManager);
+            if (isMultiThreaded()) {
+                builder.taskExecutor(taskExecutor());
+            }
+            return builder;
+        }
+
+        /**
+         * Starts a chunk-oriented step that runs on the calling thread, for the worker steps of partitioned jobs,
+         * which already run one statement per thread.
+         */
+        public <I, O> SimpleStepBuilder<I, O> singleThreadedChunk(String name, JobRepository jobRepository,
+                                                                PlatformTransactionManager transactionManager) {
+            return new StepBuilder(name, jobRepository).chunk(completionPolicy(), transactionManager);
+        }
+
+        /**
+         * @return the reader, synchronized when the step is multi-threaded
+         */
+        public <T> ItemStreamReader<T> reader(ItemStreamReader<T> reader) {
+            if (!isMultiThreaded()) {
+                return reader;
+            }
+            return new SynchronizedItemStreamReaderBuilder<T>()
+                    .delegate(reader)
+                    .build();
+        }
+
+        public boolean isMultiThreaded() {
+            return concurrency > 1;
+        }
+
+        /**
+         * A chunk is committed once it has reached the chunk size or, if set, has been open for the commit
+         * interval, whichever comes first.
+         */
+        private CompletionPolicy completionPolicy() {
+            if (commitInterval == null) {
+                return new SimpleCompletionPolicy(chunkSize);
+            }
+            final CompositeCompletionPolicy policy = new CompositeCompletionPolicy();
+            policy.setPolicies(new CompletionPolicy[]{
+                    new SimpleCompletionPolicy(chunkSize),
+                    new TimeoutTerminationPolicy(commitInterval.toMillis())
+            });
+            return policy;
+        }
+
+        private synchronized TaskExecutor taskExecutor() {
+            if (taskExecutor == null) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(job + "-step-");
+                executor.setVirtualThreads(true);
+                // the step keeps its own default limit of 4 chunks in flight on top of this one
+                executor.setConcurrencyLimit(concurrency);
+                taskExecutor = executor;
+            }
+            return taskExecutor;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.jolly.financely.batch.extractor;
 
+import org.jolly.financely.batch.rule.RuleSet;
 import org.jolly.financely.model.RawTransaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,67 +8,113 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 /**
+ * Scans page text line by line in place, without splitting it into an array of lines. Each line is trimmed by
+ * narrowing a {@link LineView} over the text, matched against the rules through that view, and copied only into
+ * the buffer of the transaction it is added to.
+ *
  * @author jolly
  */
 public class DefaultLineExtractor implements LineExtractor {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultLineExtractor.class);
 
-    protected String startReadingText;
-    protected String[] linesToSkip;
-    protected String dateRegex = "^[0-9]{2}[a-zA-Z]{3}[0-9]{2}.*";
-    protected String endReadingText;
+    // compiled once when configured, rather than on every String.matches call
+    private LineRules rules = LineRules.compile("^[0-9]{2}[a-zA-Z]{3}[0-9]{2}.*", null, null, null);
+    private final LineView line = new LineView();
     private RawTransaction rawTransaction;
+    private boolean reading;
 
     @Override
     public void dateRegex(String dateRegex) {
-        this.dateRegex = dateRegex;
+        rules = new LineRules(RuleSet.compile(dateRegex), rules.start(), rules.end(), rules.skip());
     }
 
     @Override
     public void linesToSkip(String[] linesToSkip) {
-        this.linesToSkip = linesToSkip;
+        rules = new LineRules(rules.date(), rules.start(), rules.end(), RuleSet.compile(linesToSkip));
     }
 
     @Override
     public void startReadingText(String startReadingText) {
-        this.startReadingText = startReadingText;
+        rules = new LineRules(rules.date(),
+                startReadingText == null ? RuleSet.compile() : RuleSet.compile(startReadingText),
+                rules.end(), rules.skip());
     }
 
     @Override
     public void endReadingText(String endReadingText) {
-        this.endReadingText = endReadingText;
+        rules = new LineRules(rules.date(), rules.start(),
+                endReadingText == null ? RuleSet.compile() : RuleSet.compile(endReadingText),
+                rules.skip());
     }
 
     @Override
-    public boolean extractLine(String pageContent, List<RawTransaction> items, String file) {
-        boolean start = startReadingText == null;
+    public void rules(LineRules rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public void reset(boolean reading) {
+        this.reading = reading;
+        this.rawTransaction = null;
+    }
+
+    @Override
+    public boolean extractLine(CharSequence pageContent, int page, int fromLine, List<RawTransaction> items, String file) {
+        final LineRules rules = this.rules;
+        if (rules.start().isEmpty()) {
+            reading = true;
+        }
+
+        final int length = pageContent.length();
+        int lineStart = 0;
+        // lines are numbered as by split("\\r?\\n"), a trailing '\r' is removed by the trim
+        for (int i = 0; lineStart <= length; i++) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && pageContent.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            final int next = lineEnd + 1;
+            if (i < fromLine) {
+                lineStart = next;
+                continue;
+            }
+
+            // same as String.trim
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && pageContent.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && pageContent.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            line.set(pageContent, start, end);
+            lineStart = next;
 
-        for (String line : pageContent.split("\\r?\\n")) {
-            line = line.trim();
             log.debug("un-screened line: {}", line);
             if (shouldSkip(line)) {
                 continue;
             }
 
-            if (!start && line.matches(startReadingText)) {
-                log.debug("starting line processing after this line: {}", startReadingText);
-                start = true;
+            if (!reading && rules.start().matches(line)) {
+                log.debug("starting line processing after this line: {}", line);
+                reading = true;
             }
 
-            if (endReadingText != null && line.matches(endReadingText)) {
-                log.debug("stopping line processing from this line: {}", endReadingText);
+            if (rules.end().matches(line)) {
+                log.debug("stopping line processing from this line: {}", line);
                 return false;
             }
 
-            if (start) {
-                if (line.matches(dateRegex)) {
-                    rawTransaction = new RawTransaction(file);
+            if (reading) {
+                if (rules.date().matches(line)) {
+                    rawTransaction = new RawTransaction(file, page, i);
                     items.add(rawTransaction);
                 }
                 if (rawTransaction != null) {
                     log.debug("read line: {}", line);
-                    rawTransaction.getLines().add(line);
+                    rawTransaction.addLine(line);
                 }
             }
         }
@@ -75,19 +122,14 @@ public class DefaultLineExtractor implements LineExtractor {
         return true;
     }
 
-    protected boolean shouldSkip(String line) {
-        if (line.trim().isEmpty()) {
+    /**
+     * @param line a trimmed line
+     */
+    protected boolean shouldSkip(CharSequence line) {
+        if (line.isEmpty()) {
             return true;
         }
 
-        if (linesToSkip != null) {
-            for (String skipLine : linesToSkip) {
-                if (line.matches(skipLine)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return rules.skip().matches(line);
     }
 }
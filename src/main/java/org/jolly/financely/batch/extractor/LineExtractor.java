@@ -12,5 +12,33 @@ public interface LineExtractor {
     void linesToSkip(String[] linesToSkip);
     void startReadingText(String startReadingText);
     void endReadingText(String endReadingText);
-    boolean extractLine(String pageContent, List<RawTransaction> items, String file);
+
+    /**
+     * Replaces all the rules at once, e.g. with those of a reloaded layout.
+     */
+    void rules(LineRules rules);
+
+    /**
+     * Clears any state carried over from a previous document.
+     *
+     * @param reading whether the start reading text is treated as already seen, e.g. when resuming mid document
+     */
+    void reset(boolean reading);
+
+    /**
+     * Extracts transactions from one page of a document. State such as the currently open transaction is kept
+     * across calls, so a transaction spanning a page break keeps receiving lines from the following page.
+     *
+     * @param pageContent text of the page, only read during the call
+     * @param page 1-based page number, recorded on each transaction as its source position
+     * @param fromLine index of the first line of the page to consider, earlier lines are ignored
+     * @param items list to add new transactions to
+     * @param file name of the source file
+     * @return false once the end reading text is found and no further pages should be read
+     */
+    boolean extractLine(CharSequence pageContent, int page, int fromLine, List<RawTransaction> items, String file);
+
+    default boolean extractLine(CharSequence pageContent, List<RawTransaction> items, String file) {
+        return extractLine(pageContent, 0, 0, items, file);
+    }
 }
@@ -0,0 +1,33 @@
+package org.jolly.financely.batch.extractor;
+
+import org.jolly.financely.batch.rule.RuleSet;
+import org.springframework.util.Assert;
+
+/**
+ * Compiled rules a {@link LineExtractor} reads transaction lines by, immutable so one instance is shared by all the
+ * extractors of a bank.
+ *
+ * @param date  rule of the first line of a transaction
+ * @param start rule of the line after which transactions start, empty to start at the first line
+ * @param end   rule of the line at which transactions end, empty to read to the last page
+ * @param skip  rules of lines that are not part of any transaction
+ * @author jolly
+ */
+public record LineRules(RuleSet date, RuleSet start, RuleSet end, RuleSet skip) {
+    public LineRules {
+        Assert.isTrue(!date.isEmpty(), "date rule must be set");
+    }
+
+    /**
+     * @param startReadingText null to start at the first line
+     * @param endReadingText   null to read to the last page
+     * @param linesToSkip      null to skip only empty lines
+     */
+    public static LineRules compile(String dateRegex, String startReadingText, String endReadingText,
+                                    String[] linesToSkip) {
+        return new LineRules(RuleSet.compile(dateRegex),
+                startReadingText == null ? RuleSet.compile() : RuleSet.compile(startReadingText),
+                endReadingText == null ? RuleSet.compile() : RuleSet.compile(endReadingText),
+                RuleSet.compile(linesToSkip));
+    }
+}
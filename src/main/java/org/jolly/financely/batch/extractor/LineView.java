@@ -0,0 +1,48 @@
+package org.jolly.financely.batch.extractor;
+
+import org.springframework.lang.NonNull;
+
+/**
+ * A window onto a range of some text, moved from line to line as the text is scanned so that matching a line does
+ * not copy it. Only {@link #toString()} copies.
+ *
+ * @author jolly
+ */
+final class LineView implements CharSequence {
+    private CharSequence content;
+    private int start;
+    private int end;
+
+    void set(CharSequence content, int start, int end) {
+        this.content = content;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return content.charAt(start + index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    @NonNull
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return content.subSequence(start + from, start + to);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return content.subSequence(start, end).toString();
+    }
+}
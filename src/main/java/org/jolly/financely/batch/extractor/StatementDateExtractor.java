@@ -0,0 +1,54 @@
+package org.jolly.financely.batch.extractor;
+
+import org.jolly.financely.batch.parser.StatementDateParser;
+import org.springframework.util.Assert;
+
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the date a statement was issued, or the end of the period it covers, in the text of its first page, for
+ * dating transaction lines that have no year.
+ *
+ * @author jolly
+ */
+public class StatementDateExtractor {
+    private static final String DATE_GROUP = "date";
+    private final Pattern pattern;
+    private final StatementDateParser dateParser;
+
+    /**
+     * @param regex      regex of the line with the statement date, in a group named <code>date</code>; <code>^</code>
+     *                   and <code>$</code> match at line breaks
+     * @param dateParser parser of the date in the group, with a year
+     */
+    public StatementDateExtractor(String regex, StatementDateParser dateParser) {
+        Assert.isTrue(dateParser.hasYear(), "statement date pattern must have a year");
+        this.pattern = Pattern.compile(regex, Pattern.MULTILINE);
+        this.dateParser = dateParser;
+    }
+
+    /**
+     * @return the first statement date in the text, or null if there is none
+     */
+    public LocalDate extract(CharSequence text) {
+        final Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            final String date = matcher.group(DATE_GROUP);
+            if (date == null) {
+                continue;
+            }
+            final StatementDateParser.ParsedDate parsed = dateParser.parse(date, 0);
+            if (parsed != null) {
+                return parsed.date();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementDateExtractor[" + pattern + "]";
+    }
+}
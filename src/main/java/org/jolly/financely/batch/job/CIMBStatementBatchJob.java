@@ -1,21 +1,28 @@
 package org.jolly.financely.batch.job;
 
-import org.jolly.financely.batch.extractor.DefaultLineExtractor;
-import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.config.StepTuning;
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.batch.listener.FileProgressListener;
+import org.jolly.financely.batch.listener.ProcessedFileListener;
 import org.jolly.financely.batch.processor.BankAccountProcessor;
 import org.jolly.financely.batch.reader.PdfReader;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.model.RawTransaction;
 import org.jolly.financely.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -23,10 +30,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.format.DateTimeFormatter;
-
 /**
  * @author jolly
  */
@@ -35,61 +41,121 @@ public class CIMBStatementBatchJob {
     private static final Logger log = LoggerFactory.getLogger(CIMBStatementBatchJob.class);
     @Value("file:${file.path.cimb}")
     private Resource[] resources;
+    @Value("${batch.pdf.strip-workers.cimb:1}")
+    private int stripWorkers;
+    // key of the job in the batch.step.* properties
+    private static final String JOB_KEY = "cimb";
     private static final String JOB_NAME = "CIMBAccount.ETL.Job";
+    private static final String PARTITIONED_JOB_NAME = "CIMBAccount.ETL.Partitioned.Job";
     private static final String PROCESSOR_TASK_NAME = "CIMBAccount.ETL.Job.file.load";
+    private static final String PARTITION_TASK_NAME = "CIMBAccount.ETL.Job.file.partition";
 
     @Bean
     public Job cimbBankJob(JobRepository jobRepository,
                            PlatformTransactionManager transactionManager,
-                           ItemReader<RawTransaction> cimbItemsReader,
+                           ItemStreamReader<RawTransaction> cimbItemsReader,
                            ItemProcessor<RawTransaction, Transaction> cimbItemProcessor,
-                           ItemWriter<Transaction> bankAccountDBWriter) {
-        Step step = new StepBuilder(PROCESSOR_TASK_NAME, jobRepository)
-                .<RawTransaction, Transaction>chunk(100, transactionManager)
-                .reader(cimbItemsReader)
+                           ItemWriter<Transaction> bankAccountDBWriter,
+                           JobCompletionNotifier jobCompletionNotifier,
+                           ProcessedFileListener processedFileListener,
+                           StepTuning stepTuning) {
+        StepTuning.Settings tuning = stepTuning.forJob(JOB_KEY);
+        Step step = tuning.<RawTransaction, Transaction>chunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tuning.reader(cimbItemsReader))
                 .processor(cimbItemProcessor)
                 .writer(bankAccountDBWriter)
                 .build();
 
         return new JobBuilder(JOB_NAME, jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public MultiResourceItemReader<RawTransaction> cimbItemsReader(PdfReader cimbItemReader) {
+    public Job cimbBankPartitionedJob(JobRepository jobRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      PdfReader cimbPartitionItemReader,
+                                      BankAccountProcessor cimbPartitionItemProcessor,
+                                      ItemWriter<Transaction> bankAccountDBWriter,
+                                      TaskExecutor partitionTaskExecutor,
+                                      FileProgressListener fileProgressListener,
+                                      JobCompletionNotifier jobCompletionNotifier,
+                                      ProcessedFileListener processedFileListener,
+                                      StepTuning stepTuning) {
+        Step workerStep = stepTuning.forJob(JOB_KEY)
+                .<RawTransaction, Transaction>singleThreadedChunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(cimbPartitionItemReader)
+                .processor(cimbPartitionItemProcessor)
+                .writer(bankAccountDBWriter)
+                .listener((StepExecutionListener) fileProgressListener)
+                .listener((ChunkListener) fileProgressListener)
+                .build();
+
+        Step partitionStep = new StepBuilder(PARTITION_TASK_NAME, jobRepository)
+                .partitioner(PROCESSOR_TASK_NAME, new StatementPartitioner(resources))
+                .step(workerStep)
+                .taskExecutor(partitionTaskExecutor)
+                .build();
+
+        return new JobBuilder(PARTITIONED_JOB_NAME, jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
+                .start(partitionStep)
+                .build();
+    }
+
+    @Bean
+    public MultiResourceItemReader<RawTransaction> cimbItemsReader(PdfReader cimbItemReader, StepTuning stepTuning) {
         MultiResourceItemReader<RawTransaction> reader = new MultiResourceItemReader<>();
         reader.setResources(resources);
         reader.setStrict(false);
         reader.setDelegate(cimbItemReader);
+        // the position of a multi-threaded step runs ahead of its commits, a restart reads the files again instead
+        reader.setSaveState(!stepTuning.forJob(JOB_KEY).isMultiThreaded());
         return reader;
     }
 
     @Bean
-    public PdfReader cimbItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader) {
-        LineExtractor defaultLineExtractor = new DefaultLineExtractor();
-        defaultLineExtractor.dateRegex("^[0-9]{2}\\/[0-9]{2}\\/[0-9]{4}.*");
-        defaultLineExtractor.startReadingText(".*Ref No.*");
-        defaultLineExtractor.endReadingText(".*End of Statement.*");
-        defaultLineExtractor.linesToSkip(new String[]{
-                "^Important Notice.*",
-                "^Effective 8 November 2021.*",
-                "^The Bank must be informed of any error.*",
-                "^You can transfer funds, enquire balances.*"
-        });
-        flatFileItemReader.setLineExtractor(defaultLineExtractor);
+    public PdfReader cimbItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                    LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.CIMB));
+        flatFileItemReader.setBank(Bank.CIMB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        return flatFileItemReader;
+    }
+
+    @Bean
+    @StepScope
+    public PdfReader cimbPartitionItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                             @Value("#{stepExecutionContext['fileName']}") Resource resource,
+                                             LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.CIMB));
+        flatFileItemReader.setBank(Bank.CIMB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        flatFileItemReader.setResource(resource);
         return flatFileItemReader;
     }
 
     @Bean
-    public BankAccountProcessor cimbItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor) {
-        itemProcessor.setDateTimeFormatter(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-        itemProcessor.setDateLengths(new BankAccountProcessor.DateLength(10, null));
-        itemProcessor.setCreditTransfer(new String[]{
-                ".*CREDIT INTEREST.*",
-                ".*SALARY.*"
-        });
+    public BankAccountProcessor cimbItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                  LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    @Bean
+    @StepScope
+    public BankAccountProcessor cimbPartitionItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                           LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    private BankAccountProcessor configure(BankAccountProcessor itemProcessor, LayoutRegistry layoutRegistry) {
+        itemProcessor.setBank(Bank.CIMB);
+        itemProcessor.setLayout(layoutRegistry.supplier(Bank.CIMB));
         return itemProcessor;
     }
 }
@@ -1,5 +1,8 @@
 package org.jolly.financely.batch.job;
 
+import org.jolly.financely.batch.config.StepTuning;
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.batch.parser.MoneyParser;
 import org.jolly.financely.batch.processor.DefaultExpenseProcessor;
 import org.jolly.financely.model.Expense;
 import org.jolly.financely.model.Money;
@@ -8,9 +11,8 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
-import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.LineMapper;
@@ -28,7 +30,6 @@ import org.springframework.core.io.Resource;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.BindException;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -44,34 +45,42 @@ public class ExpenseBatchJob {
     private String[] fieldNames;
     @Value("${date.format.expense:#{null}}")
     private String dateFormat;
+    // key of the job in the batch.step.* properties
+    private static final String JOB_KEY = "expense";
     private static final String JOB_NAME = "Expense.ETL.Job";
     private static final String PROCESSOR_TASK_NAME = "Expense.ETL.Job.file.load";
 
     @Bean
     public Job expenseJob(JobRepository jobRepository,
                           PlatformTransactionManager transactionManager,
-                          ItemReader<Expense> expenseItemsReader,
+                          ItemStreamReader<Expense> expenseItemsReader,
                           ItemProcessor<Expense, Expense> expenseItemProcessor,
-                          ItemWriter<Expense> expenseDBWriter) {
-        Step step = new StepBuilder(PROCESSOR_TASK_NAME, jobRepository)
-                .<Expense, Expense>chunk(100, transactionManager)
-                .reader(expenseItemsReader)
+                          ItemWriter<Expense> expenseDBWriter,
+                          JobCompletionNotifier jobCompletionNotifier,
+                          StepTuning stepTuning) {
+        StepTuning.Settings tuning = stepTuning.forJob(JOB_KEY);
+        Step step = tuning.<Expense, Expense>chunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tuning.reader(expenseItemsReader))
                 .processor(expenseItemProcessor)
                 .writer(expenseDBWriter)
                 .build();
 
         return new JobBuilder(JOB_NAME, jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public MultiResourceItemReader<Expense> expenseItemsReader(FlatFileItemReader<Expense> expenseItemReader) {
+    public MultiResourceItemReader<Expense> expenseItemsReader(FlatFileItemReader<Expense> expenseItemReader,
+                                                              StepTuning stepTuning) {
         MultiResourceItemReader<Expense> reader = new MultiResourceItemReader<>();
         reader.setResources(resources);
         reader.setStrict(false);
         reader.setDelegate(expenseItemReader);
+        // the position of a multi-threaded step runs ahead of its commits, a restart reads the files again instead
+        reader.setSaveState(!stepTuning.forJob(JOB_KEY).isMultiThreaded());
         return reader;
     }
 
@@ -97,7 +106,7 @@ public class ExpenseBatchJob {
         FieldSetMapper<Expense> fieldSetMapper = fieldSet -> {
             DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(dateFormat);
             LocalDateTime date = LocalDateTime.parse(fieldSet.readString(0), dateTimeFormatter);
-            Money price = Money.of(BigDecimal.valueOf(Double.parseDouble(fieldSet.readString(2))));
+            Money price = Money.of(MoneyParser.parse(fieldSet.readString(2)).toBigDecimal());
 
             return new Expense.Builder(date, price, fieldSet.readString(3))
                     .description(fieldSet.readString(1))
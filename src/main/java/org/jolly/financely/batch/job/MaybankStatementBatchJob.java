@@ -1,21 +1,28 @@
 package org.jolly.financely.batch.job;
 
-import org.jolly.financely.batch.extractor.DefaultLineExtractor;
-import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.config.StepTuning;
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.batch.listener.FileProgressListener;
+import org.jolly.financely.batch.listener.ProcessedFileListener;
 import org.jolly.financely.batch.processor.BankAccountProcessor;
 import org.jolly.financely.batch.reader.PdfReader;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.model.RawTransaction;
 import org.jolly.financely.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -23,10 +30,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.format.DateTimeFormatter;
-
 /**
  * @author jolly
  */
@@ -35,59 +41,123 @@ public class MaybankStatementBatchJob {
     private static final Logger log = LoggerFactory.getLogger(MaybankStatementBatchJob.class);
     @Value("file:${file.path.mbb}")
     private Resource[] resources;
+    @Value("${batch.pdf.strip-workers.mbb:1}")
+    private int stripWorkers;
+    // key of the job in the batch.step.* properties
+    private static final String JOB_KEY = "mbb";
     private static final String JOB_NAME = "MBBAccount.ETL.Job";
+    private static final String PARTITIONED_JOB_NAME = "MBBAccount.ETL.Partitioned.Job";
     private static final String PROCESSOR_TASK_NAME = "MBBAccount.ETL.Job.file.load";
+    private static final String PARTITION_TASK_NAME = "MBBAccount.ETL.Job.file.partition";
 
     @Bean
     public Job mbbBankJob(JobRepository jobRepository,
                           PlatformTransactionManager transactionManager,
-                          ItemReader<RawTransaction> mbbItemsReader,
+                          ItemStreamReader<RawTransaction> mbbItemsReader,
                           ItemProcessor<RawTransaction, Transaction> mbbItemProcessor,
-                          ItemWriter<Transaction> bankAccountDBWriter) {
-        Step step = new StepBuilder(PROCESSOR_TASK_NAME, jobRepository)
-                .<RawTransaction, Transaction>chunk(100, transactionManager)
-                .reader(mbbItemsReader)
+                          ItemWriter<Transaction> bankAccountDBWriter,
+                          JobCompletionNotifier jobCompletionNotifier,
+                          ProcessedFileListener processedFileListener,
+                          StepTuning stepTuning) {
+        StepTuning.Settings tuning = stepTuning.forJob(JOB_KEY);
+        Step step = tuning.<RawTransaction, Transaction>chunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tuning.reader(mbbItemsReader))
                 .processor(mbbItemProcessor)
                 .writer(bankAccountDBWriter)
                 .build();
 
         return new JobBuilder(JOB_NAME, jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public MultiResourceItemReader<RawTransaction> mbbItemsReader(PdfReader mbbItemReader) {
+    public Job mbbBankPartitionedJob(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     PdfReader mbbPartitionItemReader,
+                                     BankAccountProcessor mbbPartitionItemProcessor,
+                                     ItemWriter<Transaction> bankAccountDBWriter,
+                                     TaskExecutor partitionTaskExecutor,
+                                     FileProgressListener fileProgressListener,
+                                     JobCompletionNotifier jobCompletionNotifier,
+                                     ProcessedFileListener processedFileListener,
+                                     StepTuning stepTuning) {
+        Step workerStep = stepTuning.forJob(JOB_KEY)
+                .<RawTransaction, Transaction>singleThreadedChunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(mbbPartitionItemReader)
+                .processor(mbbPartitionItemProcessor)
+                .writer(bankAccountDBWriter)
+                .listener((StepExecutionListener) fileProgressListener)
+                .listener((ChunkListener) fileProgressListener)
+                .build();
+
+        Step partitionStep = new StepBuilder(PARTITION_TASK_NAME, jobRepository)
+                .partitioner(PROCESSOR_TASK_NAME, new StatementPartitioner(resources))
+                .step(workerStep)
+                .taskExecutor(partitionTaskExecutor)
+                .build();
+
+        return new JobBuilder(PARTITIONED_JOB_NAME, jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
+                .start(partitionStep)
+                .build();
+    }
+
+    @Bean
+    public MultiResourceItemReader<RawTransaction> mbbItemsReader(PdfReader mbbItemReader, StepTuning stepTuning) {
         MultiResourceItemReader<RawTransaction> reader = new MultiResourceItemReader<>();
         reader.setResources(resources);
         reader.setStrict(false);
         reader.setDelegate(mbbItemReader);
+        // the position of a multi-threaded step runs ahead of its commits, a restart reads the files again instead
+        reader.setSaveState(!stepTuning.forJob(JOB_KEY).isMultiThreaded());
         return reader;
     }
 
     @Bean
-    public PdfReader mbbItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader) {
-        LineExtractor defaultLineExtractor = new DefaultLineExtractor();
-        defaultLineExtractor.dateRegex("^[0-9]{2}\\/[0-9]{2}\\/[0-9]{4}.*");
-        defaultLineExtractor.startReadingText(".*ENTRY DATE.*");
-        defaultLineExtractor.endReadingText(".*ENDING BALANCE.*");
-        defaultLineExtractor.linesToSkip(new String[]{
-                "^Perhation / Note.*"
-        });
-        flatFileItemReader.setLineExtractor(defaultLineExtractor);
+    public PdfReader mbbItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                   LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.MBB));
+        flatFileItemReader.setBank(Bank.MBB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
         flatFileItemReader.setPdfPassword(""); //TODO: use bouncy castle
         return flatFileItemReader;
     }
 
     @Bean
-    public BankAccountProcessor mbbItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor) {
-        itemProcessor.setDateTimeFormatter(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-        itemProcessor.setDateLengths(new BankAccountProcessor.DateLength(10, null));
-        itemProcessor.setCreditTransfer(new String[]{
-                "(?<!\\d)\\d{1,3}(?:,\\d{3})+(?:\\.\\d{2})?\\+",
-                "\\d+\\.\\d+\\+"
-        });
+    @StepScope
+    public PdfReader mbbPartitionItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                            @Value("#{stepExecutionContext['fileName']}") Resource resource,
+                                            LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.MBB));
+        flatFileItemReader.setBank(Bank.MBB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        flatFileItemReader.setPdfPassword(""); //TODO: use bouncy castle
+        flatFileItemReader.setResource(resource);
+        return flatFileItemReader;
+    }
+
+    @Bean
+    public BankAccountProcessor mbbItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                 LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    @Bean
+    @StepScope
+    public BankAccountProcessor mbbPartitionItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                          LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    private BankAccountProcessor configure(BankAccountProcessor itemProcessor, LayoutRegistry layoutRegistry) {
+        itemProcessor.setBank(Bank.MBB);
+        itemProcessor.setLayout(layoutRegistry.supplier(Bank.MBB));
         return itemProcessor;
     }
 }
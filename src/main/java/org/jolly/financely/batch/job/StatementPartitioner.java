@@ -0,0 +1,50 @@
+package org.jolly.financely.batch.job;
+
+import org.jolly.financely.batch.launch.JobLaunchService;
+import org.jolly.financely.batch.listener.FileProgressListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.util.Map;
+
+/**
+ * One partition per statement file of a bank, or only the file given in the
+ * {@link JobLaunchService#FILE_PARAMETER} job parameter when the job was launched for an upload.
+ *
+ * @author jolly
+ */
+final class StatementPartitioner implements Partitioner {
+    private static final Logger log = LoggerFactory.getLogger(StatementPartitioner.class);
+    private final Resource[] resources;
+
+    StatementPartitioner(Resource[] resources) {
+        this.resources = resources;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        final String file = fileParameter();
+        final MultiResourcePartitioner partitioner = new MultiResourcePartitioner();
+        if (file != null) {
+            log.debug("partitioning file: {} only", file);
+            partitioner.setResources(new Resource[]{new FileSystemResource(file)});
+        } else {
+            partitioner.setResources(resources);
+        }
+        partitioner.setKeyName(FileProgressListener.FILE_NAME_KEY);
+        return partitioner.partition(gridSize);
+    }
+
+    private static String fileParameter() {
+        final StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null
+                : context.getStepExecution().getJobParameters().getString(JobLaunchService.FILE_PARAMETER);
+    }
+}
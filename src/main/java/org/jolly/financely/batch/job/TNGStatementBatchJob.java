@@ -1,21 +1,28 @@
 package org.jolly.financely.batch.job;
 
-import org.jolly.financely.batch.extractor.DefaultLineExtractor;
-import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.config.StepTuning;
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.batch.listener.FileProgressListener;
+import org.jolly.financely.batch.listener.ProcessedFileListener;
 import org.jolly.financely.batch.processor.BankAccountProcessor;
 import org.jolly.financely.batch.reader.PdfReader;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.model.RawTransaction;
 import org.jolly.financely.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -23,10 +30,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.format.DateTimeFormatter;
-
 /**
  * @author jolly
  */
@@ -35,61 +41,121 @@ public class TNGStatementBatchJob {
     private static final Logger log = LoggerFactory.getLogger(TNGStatementBatchJob.class);
     @Value("file:${file.path.tng}")
     private Resource[] resources;
+    @Value("${batch.pdf.strip-workers.tng:1}")
+    private int stripWorkers;
+    // key of the job in the batch.step.* properties
+    private static final String JOB_KEY = "tng";
     private static final String JOB_NAME = "TNGAccount.ETL.Job";
+    private static final String PARTITIONED_JOB_NAME = "TNGAccount.ETL.Partitioned.Job";
     private static final String PROCESSOR_TASK_NAME = "TNGAccount.ETL.Job.file.load";
+    private static final String PARTITION_TASK_NAME = "TNGAccount.ETL.Job.file.partition";
 
     @Bean
     public Job tngBankJob(JobRepository jobRepository,
                            PlatformTransactionManager transactionManager,
-                           ItemReader<RawTransaction> tngItemsReader,
+                           ItemStreamReader<RawTransaction> tngItemsReader,
                            ItemProcessor<RawTransaction, Transaction> tngItemProcessor,
-                           ItemWriter<Transaction> bankAccountDBWriter) {
-        Step step = new StepBuilder(PROCESSOR_TASK_NAME, jobRepository)
-                .<RawTransaction, Transaction>chunk(100, transactionManager)
-                .reader(tngItemsReader)
+                           ItemWriter<Transaction> bankAccountDBWriter,
+                          JobCompletionNotifier jobCompletionNotifier,
+                          ProcessedFileListener processedFileListener,
+                          StepTuning stepTuning) {
+        StepTuning.Settings tuning = stepTuning.forJob(JOB_KEY);
+        Step step = tuning.<RawTransaction, Transaction>chunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tuning.reader(tngItemsReader))
                 .processor(tngItemProcessor)
                 .writer(bankAccountDBWriter)
                 .build();
 
         return new JobBuilder(JOB_NAME, jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public MultiResourceItemReader<RawTransaction> tngItemsReader(PdfReader tngItemReader) {
+    public Job tngBankPartitionedJob(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     PdfReader tngPartitionItemReader,
+                                     BankAccountProcessor tngPartitionItemProcessor,
+                                     ItemWriter<Transaction> bankAccountDBWriter,
+                                     TaskExecutor partitionTaskExecutor,
+                                     FileProgressListener fileProgressListener,
+                                     JobCompletionNotifier jobCompletionNotifier,
+                                     ProcessedFileListener processedFileListener,
+                                     StepTuning stepTuning) {
+        Step workerStep = stepTuning.forJob(JOB_KEY)
+                .<RawTransaction, Transaction>singleThreadedChunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tngPartitionItemReader)
+                .processor(tngPartitionItemProcessor)
+                .writer(bankAccountDBWriter)
+                .listener((StepExecutionListener) fileProgressListener)
+                .listener((ChunkListener) fileProgressListener)
+                .build();
+
+        Step partitionStep = new StepBuilder(PARTITION_TASK_NAME, jobRepository)
+                .partitioner(PROCESSOR_TASK_NAME, new StatementPartitioner(resources))
+                .step(workerStep)
+                .taskExecutor(partitionTaskExecutor)
+                .build();
+
+        return new JobBuilder(PARTITIONED_JOB_NAME, jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
+                .start(partitionStep)
+                .build();
+    }
+
+    @Bean
+    public MultiResourceItemReader<RawTransaction> tngItemsReader(PdfReader tngItemReader, StepTuning stepTuning) {
         MultiResourceItemReader<RawTransaction> reader = new MultiResourceItemReader<>();
         reader.setResources(resources);
         reader.setStrict(false);
         reader.setDelegate(tngItemReader);
+        // the position of a multi-threaded step runs ahead of its commits, a restart reads the files again instead
+        reader.setSaveState(!stepTuning.forJob(JOB_KEY).isMultiThreaded());
         return reader;
     }
 
     @Bean
-    public PdfReader tngItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader) {
-        LineExtractor defaultLineExtractor = new DefaultLineExtractor();
-        defaultLineExtractor.dateRegex("^[0-9]{1,2}\\/[0-9]{1,2}\\/[0-9]{4}.*");
-        defaultLineExtractor.linesToSkip(new String[]{
-                "^\\*This is a system generated email\\..*",
-        });
-        flatFileItemReader.setLineExtractor(defaultLineExtractor);
+    public PdfReader tngItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                   LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.TNG));
+        flatFileItemReader.setBank(Bank.TNG);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        return flatFileItemReader;
+    }
+
+    @Bean
+    @StepScope
+    public PdfReader tngPartitionItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                            @Value("#{stepExecutionContext['fileName']}") Resource resource,
+                                            LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.TNG));
+        flatFileItemReader.setBank(Bank.TNG);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        flatFileItemReader.setResource(resource);
         return flatFileItemReader;
     }
 
     @Bean
-    public BankAccountProcessor tngItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor) {
-        itemProcessor.setDateTimeFormatter(DateTimeFormatter.ofPattern("d/M/yyyy"));
-        itemProcessor.setDateLengths(new BankAccountProcessor.DateLength(8, 10));
-        itemProcessor.setCreditTransfer(new String[]{
-                ".*DUITNOW_RECEI.*",
-                ".*Receive from Wallet.*",
-                ".*Daily Earnings.*"
-        });
-        // to avoid duplicate records from TnG automatic reload payment from Go+
-        itemProcessor.setItemsToSkip(new String[]{
-                ".*Quick Reload Payment \\(via .*"
-        });
+    public BankAccountProcessor tngItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                 LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    @Bean
+    @StepScope
+    public BankAccountProcessor tngPartitionItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                          LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    private BankAccountProcessor configure(BankAccountProcessor itemProcessor, LayoutRegistry layoutRegistry) {
+        itemProcessor.setBank(Bank.TNG);
+        itemProcessor.setLayout(layoutRegistry.supplier(Bank.TNG));
         return itemProcessor;
     }
 }
@@ -1,21 +1,28 @@
 package org.jolly.financely.batch.job;
 
-import org.jolly.financely.batch.extractor.DefaultLineExtractor;
-import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.config.StepTuning;
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.batch.listener.FileProgressListener;
+import org.jolly.financely.batch.listener.ProcessedFileListener;
 import org.jolly.financely.batch.processor.BankAccountProcessor;
 import org.jolly.financely.batch.reader.PdfReader;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.model.RawTransaction;
 import org.jolly.financely.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.MultiResourceItemReader;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -23,12 +30,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.format.DateTimeFormatterBuilder;
-import java.time.temporal.ChronoField;
-import java.util.Locale;
-
 /**
  * @author jolly
  */
@@ -37,66 +41,121 @@ public class UOBStatementBatchJob {
     private static final Logger log = LoggerFactory.getLogger(UOBStatementBatchJob.class);
     @Value("file:${file.path.uob}")
     private Resource[] resources;
+    @Value("${batch.pdf.strip-workers.uob:1}")
+    private int stripWorkers;
+    // key of the job in the batch.step.* properties
+    private static final String JOB_KEY = "uob";
     private static final String JOB_NAME = "UOBAccount.ETL.Job";
+    private static final String PARTITIONED_JOB_NAME = "UOBAccount.ETL.Partitioned.Job";
     private static final String PROCESSOR_TASK_NAME = "UOBAccount.ETL.Job.file.load";
+    private static final String PARTITION_TASK_NAME = "UOBAccount.ETL.Job.file.partition";
 
     @Bean
     public Job uobBankJob(JobRepository jobRepository,
                           PlatformTransactionManager transactionManager,
-                          ItemReader<RawTransaction> uobItemsReader,
+                          ItemStreamReader<RawTransaction> uobItemsReader,
                           ItemProcessor<RawTransaction, Transaction> uobItemProcessor,
-                          ItemWriter<Transaction> bankAccountDBWriter) {
-        Step step = new StepBuilder(PROCESSOR_TASK_NAME, jobRepository)
-                .<RawTransaction, Transaction>chunk(100, transactionManager)
-                .reader(uobItemsReader)
+                          ItemWriter<Transaction> bankAccountDBWriter,
+                          JobCompletionNotifier jobCompletionNotifier,
+                          ProcessedFileListener processedFileListener,
+                          StepTuning stepTuning) {
+        StepTuning.Settings tuning = stepTuning.forJob(JOB_KEY);
+        Step step = tuning.<RawTransaction, Transaction>chunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(tuning.reader(uobItemsReader))
                 .processor(uobItemProcessor)
                 .writer(bankAccountDBWriter)
                 .build();
 
         return new JobBuilder(JOB_NAME, jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public MultiResourceItemReader<RawTransaction> uobItemsReader(PdfReader uobItemReader) {
+    public Job uobBankPartitionedJob(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     PdfReader uobPartitionItemReader,
+                                     BankAccountProcessor uobPartitionItemProcessor,
+                                     ItemWriter<Transaction> bankAccountDBWriter,
+                                     TaskExecutor partitionTaskExecutor,
+                                     FileProgressListener fileProgressListener,
+                                     JobCompletionNotifier jobCompletionNotifier,
+                                     ProcessedFileListener processedFileListener,
+                                     StepTuning stepTuning) {
+        Step workerStep = stepTuning.forJob(JOB_KEY)
+                .<RawTransaction, Transaction>singleThreadedChunk(PROCESSOR_TASK_NAME, jobRepository, transactionManager)
+                .reader(uobPartitionItemReader)
+                .processor(uobPartitionItemProcessor)
+                .writer(bankAccountDBWriter)
+                .listener((StepExecutionListener) fileProgressListener)
+                .listener((ChunkListener) fileProgressListener)
+                .build();
+
+        Step partitionStep = new StepBuilder(PARTITION_TASK_NAME, jobRepository)
+                .partitioner(PROCESSOR_TASK_NAME, new StatementPartitioner(resources))
+                .step(workerStep)
+                .taskExecutor(partitionTaskExecutor)
+                .build();
+
+        return new JobBuilder(PARTITIONED_JOB_NAME, jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .listener(jobCompletionNotifier)
+                .listener(processedFileListener)
+                .start(partitionStep)
+                .build();
+    }
+
+    @Bean
+    public MultiResourceItemReader<RawTransaction> uobItemsReader(PdfReader uobItemReader, StepTuning stepTuning) {
         MultiResourceItemReader<RawTransaction> reader = new MultiResourceItemReader<>();
         reader.setResources(resources);
         reader.setStrict(false);
         reader.setDelegate(uobItemReader);
+        // the position of a multi-threaded step runs ahead of its commits, a restart reads the files again instead
+        reader.setSaveState(!stepTuning.forJob(JOB_KEY).isMultiThreaded());
         return reader;
     }
 
     @Bean
-    public PdfReader uobItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader) {
-        LineExtractor defaultLineExtractor = new DefaultLineExtractor();
-        defaultLineExtractor.dateRegex("^[0-9]{2} [a-zA-Z]{3}.*");
-        defaultLineExtractor.startReadingText(".*Transaction Date.*");
-        defaultLineExtractor.endReadingText(".*END OF STATEMENT.*");
-        defaultLineExtractor.linesToSkip(
-                new String[]{
-                        ".*COMBINED LIMIT.*",
-                        ".*PREVIOUS BAL.*",
-                        ".*SUB-TOTAL.*",
-                        ".*MINIMUM PAYMENT DUE.*"
-                }
-        );
-        flatFileItemReader.setLineExtractor(defaultLineExtractor);
+    public PdfReader uobItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                   LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.UOB));
+        flatFileItemReader.setBank(Bank.UOB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        return flatFileItemReader;
+    }
+
+    @Bean
+    @StepScope
+    public PdfReader uobPartitionItemReader(@Qualifier("pdfReader") PdfReader flatFileItemReader,
+                                            @Value("#{stepExecutionContext['fileName']}") Resource resource,
+                                            LayoutRegistry layoutRegistry) {
+        flatFileItemReader.setLayout(layoutRegistry.supplier(Bank.UOB));
+        flatFileItemReader.setBank(Bank.UOB);
+        flatFileItemReader.setStripWorkers(stripWorkers);
+        flatFileItemReader.setResource(resource);
         return flatFileItemReader;
     }
 
     @Bean
-    public BankAccountProcessor uobItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor) {
-        itemProcessor.setDateTimeFormatter(new DateTimeFormatterBuilder()
-                .parseCaseInsensitive()
-                .appendPattern("dd MMM")
-                .parseDefaulting(ChronoField.YEAR, 2024) //TODO: parse year from statement automatically
-                .toFormatter(Locale.getDefault()));
-        itemProcessor.setDateLengths(new BankAccountProcessor.DateLength(6, null));
-        itemProcessor.setCreditTransfer(new String[]{
-                ".* CR$"
-        });
+    public BankAccountProcessor uobItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                 LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    @Bean
+    @StepScope
+    public BankAccountProcessor uobPartitionItemProcessor(@Qualifier("bankAccountProcessor") BankAccountProcessor itemProcessor,
+                                                          LayoutRegistry layoutRegistry) {
+        return configure(itemProcessor, layoutRegistry);
+    }
+
+    private BankAccountProcessor configure(BankAccountProcessor itemProcessor, LayoutRegistry layoutRegistry) {
+        itemProcessor.setBank(Bank.UOB);
+        itemProcessor.setLayout(layoutRegistry.supplier(Bank.UOB));
         return itemProcessor;
     }
 }
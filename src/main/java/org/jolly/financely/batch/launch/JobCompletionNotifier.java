@@ -0,0 +1,72 @@
+package org.jolly.financely.batch.launch;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Lets callers wait for a job execution to finish without polling the job repository.
+ *
+ * @author jolly
+ */
+@Component
+public class JobCompletionNotifier implements JobExecutionListener {
+    // futures of the callers waiting for each job execution, removed once it finishes or they stop waiting, so an
+    // execution that never finishes, e.g. after a crash, only holds them for as long as its callers wait
+    private final Map<Long, List<CompletableFuture<JobExecution>>> completions = new ConcurrentHashMap<>();
+    private final List<Consumer<JobExecution>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Callers must check whether the execution already finished after registering, since a completion signalled
+     * before this call is not replayed. Callers that stop waiting before the execution finishes must
+     * {@link #release(long, CompletableFuture)} the future.
+     */
+    public CompletableFuture<JobExecution> completion(long jobExecutionId) {
+        final CompletableFuture<JobExecution> completion = new CompletableFuture<>();
+        completions.compute(jobExecutionId, (id, waiting) -> {
+            final List<CompletableFuture<JobExecution>> list = waiting != null ? waiting : new ArrayList<>();
+            list.add(completion);
+            return list;
+        });
+        return completion;
+    }
+
+    /**
+     * Stops tracking a future returned by {@link #completion(long)}, e.g. once its caller timed out.
+     */
+    public void release(long jobExecutionId, CompletableFuture<JobExecution> completion) {
+        completions.computeIfPresent(jobExecutionId, (id, waiting) -> {
+            waiting.remove(completion);
+            return waiting.isEmpty() ? null : waiting;
+        });
+    }
+
+    /**
+     * Calls back when any job execution finishes, in the thread that ran the job.
+     */
+    public void onCompletion(Consumer<JobExecution> listener) {
+        listeners.add(listener);
+    }
+
+    public void complete(@NonNull JobExecution jobExecution) {
+        final List<CompletableFuture<JobExecution>> waiting = completions.remove(jobExecution.getId());
+        if (waiting != null) {
+            waiting.forEach(completion -> completion.complete(jobExecution));
+        }
+    }
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        complete(jobExecution);
+        listeners.forEach(listener -> listener.accept(jobExecution));
+    }
+}
@@ -0,0 +1,78 @@
+package org.jolly.financely.batch.launch;
+
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.exception.JobRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author jolly
+ */
+@Service
+public class JobLaunchService {
+    private static final Logger log = LoggerFactory.getLogger(JobLaunchService.class);
+    /**
+     * Job parameter with the path of the only file a statement job is launched for.
+     */
+    public static final String FILE_PARAMETER = "input.file";
+    /**
+     * Job parameter with the bank the uploader gave for the file, which the file is then read as without detecting it.
+     */
+    public static final String BANK_PARAMETER = "input.bank";
+    private final JobLauncher jobLauncher;
+
+    public JobLaunchService(@Qualifier("asyncJobLauncher") JobLauncher jobLauncher) {
+        this.jobLauncher = jobLauncher;
+    }
+
+    /**
+     * Starts a new instance of the job without waiting for it to finish.
+     *
+     * @return the created job execution, still running
+     * @throws JobRejectedException if too many jobs are running or waiting already
+     */
+    public JobExecution launch(Job job) throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+        return launch(job, new HashMap<>());
+    }
+
+    /**
+     * Starts a new instance of the job on just the given file without waiting for it to finish.
+     *
+     * @param bank bank the file was given as from, null if it was detected
+     * @return the created job execution, still running
+     * @throws JobRejectedException if too many jobs are running or waiting already
+     */
+    public JobExecution launch(Job job, Path file, Bank bank) throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+        Map<String, JobParameter<?>> parameters = new HashMap<>();
+        parameters.put(FILE_PARAMETER, new JobParameter<>(file.toString(), String.class));
+        if (bank != null) {
+            parameters.put(BANK_PARAMETER, new JobParameter<>(bank.name(), String.class));
+        }
+        return launch(job, parameters);
+    }
+
+    private JobExecution launch(Job job, Map<String, JobParameter<?>> parameters) throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+        parameters.put("time", new JobParameter<>(System.currentTimeMillis(), Long.class));
+        JobParameters jobParameters = new JobParameters(parameters);
+
+        JobExecution jobExecution = jobLauncher.run(job, jobParameters);
+        // the launcher marks a job its executor rejects as failed without starting it, instead of throwing
+        if (jobExecution.getStatus() == BatchStatus.FAILED && jobExecution.getStartTime() == null) {
+            log.warn("rejected job: {}, execution: {}, too many jobs running or waiting", job.getName(), jobExecution.getId());
+            throw new JobRejectedException("too many jobs running or waiting, try again later");
+        }
+        log.debug("launched job: {}, execution: {}, status: {}", job.getName(), jobExecution.getId(), jobExecution.getStatus());
+        return jobExecution;
+    }
+}
@@ -0,0 +1,73 @@
+package org.jolly.financely.batch.layout;
+
+import org.jolly.financely.batch.extractor.LineRules;
+import org.jolly.financely.batch.extractor.StatementDateExtractor;
+import org.jolly.financely.batch.parser.StatementDateParser;
+import org.jolly.financely.batch.rule.RuleSet;
+import org.jolly.financely.constant.Bank;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Layout of the statements of a bank compiled from its {@link LayoutProfile}, immutable and shared by all the
+ * readers and processors of the bank.
+ *
+ * @param statementDateExtractor null if the layout has no statement date
+ * @param source                 description of the profile the layout was compiled from
+ * @author jolly
+ */
+public record BankLayout(Bank bank,
+                         LineRules lineRules,
+                         StatementDateExtractor statementDateExtractor,
+                         StatementDateParser dateParser,
+                         RuleSet creditTransfer,
+                         RuleSet itemsToSkip,
+                         String source) {
+
+    /**
+     * @throws IllegalArgumentException if the profile is incomplete or has an invalid regex or date pattern
+     */
+    public static BankLayout compile(LayoutProfile profile, String source) {
+        try {
+            require(profile.bank() != null, "bank");
+            require(profile.lines() != null && profile.lines().date() != null, "lines.date");
+            require(profile.transactions() != null && profile.transactions().datePattern() != null,
+                    "transactions.date-pattern");
+            final Locale locale = profile.locale() == null ? Locale.ENGLISH : Locale.forLanguageTag(profile.locale());
+
+            final LayoutProfile.Lines lines = profile.lines();
+            final LineRules lineRules = LineRules.compile(lines.date(), lines.start(), lines.end(), array(lines.skip()));
+
+            StatementDateExtractor statementDateExtractor = null;
+            final LayoutProfile.StatementDate statementDate = profile.statementDate();
+            if (statementDate != null) {
+                require(statementDate.regex() != null && statementDate.pattern() != null,
+                        "statement-date.regex and statement-date.pattern");
+                statementDateExtractor = new StatementDateExtractor(statementDate.regex(),
+                        StatementDateParser.ofPattern(statementDate.pattern(), locale));
+            }
+
+            final LayoutProfile.Transactions transactions = profile.transactions();
+            return new BankLayout(profile.bank(),
+                    lineRules,
+                    statementDateExtractor,
+                    StatementDateParser.ofPattern(transactions.datePattern(), locale),
+                    RuleSet.compile(array(transactions.credit())),
+                    RuleSet.compile(array(transactions.skip())),
+                    source);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid layout profile: " + source + ", " + e.getMessage(), e);
+        }
+    }
+
+    private static void require(boolean condition, String key) {
+        if (!condition) {
+            throw new IllegalArgumentException(key + " must be set");
+        }
+    }
+
+    private static String[] array(List<String> list) {
+        return list == null ? null : list.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,59 @@
+package org.jolly.financely.batch.layout;
+
+import org.jolly.financely.constant.Bank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <code>GET /actuator/layouts</code> lists the profile each bank layout was compiled from, and
+ * <code>POST /actuator/layouts</code> reloads them, responding with 400 and the reason if a profile is broken.
+ *
+ * @author jolly
+ */
+@Component
+@WebEndpoint(id = "layouts")
+public class LayoutEndpoint {
+    private static final Logger log = LoggerFactory.getLogger(LayoutEndpoint.class);
+    private final LayoutRegistry layoutRegistry;
+
+    public LayoutEndpoint(LayoutRegistry layoutRegistry) {
+        this.layoutRegistry = layoutRegistry;
+    }
+
+    @ReadOperation
+    public LayoutsDescriptor layouts() {
+        return LayoutsDescriptor.of(layoutRegistry.layouts());
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> reload() {
+        try {
+            return new WebEndpointResponse<>(LayoutsDescriptor.of(layoutRegistry.reload()));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("failed to reload layouts, keeping the current ones", e);
+            return new WebEndpointResponse<>(Map.of("error", String.valueOf(e.getMessage())),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * @param sources profile of the layout of each bank
+     */
+    public record LayoutsDescriptor(Instant loadedAt, Map<Bank, String> sources) {
+        static LayoutsDescriptor of(LayoutRegistry.Layouts layouts) {
+            final Map<Bank, String> sources = new EnumMap<>(Bank.class);
+            layouts.byBank().forEach((bank, layout) -> sources.put(bank, layout.source()));
+            return new LayoutsDescriptor(layouts.loadedAt(), sources);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.jolly.financely.batch.layout;
+
+import org.jolly.financely.constant.Bank;
+
+import java.util.List;
+
+/**
+ * Layout of the statements of a bank as declared in a YAML or JSON profile, with keys in kebab case, e.g.
+ * <pre>
+ * bank: UOB
+ * locale: en
+ * lines:
+ *   date: '^[0-9]{2} [a-zA-Z]{3}.*'
+ *   start: '.*Transaction Date.*'
+ *   end: '.*END OF STATEMENT.*'
+ *   skip:
+ *     - '.*SUB-TOTAL.*'
+ * statement-date:
+ *   regex: '(?i)statement date.*?(?&lt;date&gt;\d{1,2} [a-z]{3} \d{4})'
+ *   pattern: 'd MMM yyyy'
+ * transactions:
+ *   date-pattern: 'dd MMM'
+ *   credit:
+ *     - '.* CR$'
+ *   skip: []
+ * </pre>
+ *
+ * @param locale        language tag of the month names, English if not set
+ * @param statementDate where the statement date is on the first page, not set for statements whose transaction
+ *                      dates have a year
+ * @author jolly
+ */
+public record LayoutProfile(Bank bank, String locale, Lines lines, StatementDate statementDate,
+                            Transactions transactions) {
+
+    /**
+     * Regexes of the lines of the page text, matched against whole trimmed lines.
+     *
+     * @param date  first line of a transaction
+     * @param start line after which transactions start, not set to start at the first line
+     * @param end   line at which transactions end, not set to read to the last page
+     * @param skip  lines that are not part of any transaction
+     */
+    public record Lines(String date, String start, String end, List<String> skip) {}
+
+    /**
+     * @param regex   regex of the statement date, in a group named <code>date</code>
+     * @param pattern pattern of the date, with a year
+     */
+    public record StatementDate(String regex, String pattern) {}
+
+    /**
+     * @param datePattern pattern of the date at the start of a transaction
+     * @param credit      regexes of transactions that are credits rather than debits
+     * @param skip        regexes of transactions that are not loaded
+     */
+    public record Transactions(String datePattern, List<String> credit, List<String> skip) {}
+}
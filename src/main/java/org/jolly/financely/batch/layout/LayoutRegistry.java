@@ -0,0 +1,126 @@
+package org.jolly.financely.batch.layout;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.jolly.financely.constant.Bank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @author jolly
+ */
+@Component
+public class LayoutRegistry {
+    private static final Logger log = LoggerFactory.getLogger(LayoutRegistry.class);
+    private static final String[] EXTENSIONS = {"yml", "yaml", "json"};
+    private final ResourcePatternResolver resourcePatternResolver;
+    private final String location;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .propertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
+            .build();
+    private volatile Layouts layouts;
+
+    /**
+     * @param location directory of the profiles, e.g. <code>file:/etc/financely/layouts/</code>
+     */
+    public LayoutRegistry(ResourceLoader resourceLoader,
+                          @Value("${batch.layout.location:classpath:layouts/}") String location) throws IOException {
+        this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.location = location.endsWith("/") ? location : location + "/";
+        reload();
+    }
+
+    /**
+     * @throws IllegalStateException if there is no layout of the bank
+     */
+    public BankLayout layout(Bank bank) {
+        final BankLayout layout = layouts.byBank().get(bank);
+        if (layout == null) {
+            throw new IllegalStateException("no layout of bank: " + bank + " in: " + location);
+        }
+        return layout;
+    }
+
+    /**
+     * @return the current layout of the bank each time it is called
+     * @throws IllegalStateException if there is no layout of the bank now, so a job without one fails on startup
+     */
+    public Supplier<BankLayout> supplier(Bank bank) {
+        layout(bank);
+        return () -> layout(bank);
+    }
+
+    public Layouts layouts() {
+        return layouts;
+    }
+
+    /**
+     * Compiles all the profiles at the location, replacing the current layouts only if they all compile.
+     *
+     * @return the new layouts
+     * @throws IOException              if a profile cannot be read
+     * @throws IllegalArgumentException if a profile is invalid or two are of the same bank
+     */
+    public synchronized Layouts reload() throws IOException {
+        final Map<Bank, BankLayout> byBank = new EnumMap<>(Bank.class);
+        for (Resource resource : profiles()) {
+            final String source = resource.getDescription();
+            final BankLayout layout = BankLayout.compile(read(resource), source);
+            final BankLayout duplicate = byBank.put(layout.bank(), layout);
+            if (duplicate != null) {
+                throw new IllegalArgumentException("layout of bank: " + layout.bank() + " in both: "
+                        + duplicate.source() + " and: " + source);
+            }
+        }
+
+        layouts = new Layouts(Collections.unmodifiableMap(byBank), Instant.now());
+        log.info("loaded layouts of banks: {} from: {}", byBank.keySet(), location);
+        return layouts;
+    }
+
+    private List<Resource> profiles() throws IOException {
+        final List<Resource> profiles = new ArrayList<>();
+        for (String extension : EXTENSIONS) {
+            profiles.addAll(List.of(resourcePatternResolver.getResources(location + "*." + extension)));
+        }
+        profiles.sort(Comparator.comparing(Resource::getDescription));
+        return profiles;
+    }
+
+    private LayoutProfile read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            // JSON is read as YAML too
+            final Object profile = new Yaml(new SafeConstructor(new LoaderOptions())).load(in);
+            return objectMapper.convertValue(profile, LayoutProfile.class);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid layout profile: " + resource.getDescription() + ", "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param loadedAt when the layouts were compiled
+     */
+    public record Layouts(Map<Bank, BankLayout> byBank, Instant loadedAt) {}
+}
@@ -0,0 +1,46 @@
+package org.jolly.financely.batch.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports progress of a partitioned worker step against the statement file it was given.
+ *
+ * @author jolly
+ */
+@Component
+public class FileProgressListener implements StepExecutionListener, ChunkListener {
+    private static final Logger log = LoggerFactory.getLogger(FileProgressListener.class);
+    public static final String FILE_NAME_KEY = "fileName";
+
+    @Override
+    public void beforeStep(@NonNull StepExecution stepExecution) {
+        log.info("started file: {}, step: {}", fileName(stepExecution), stepExecution.getStepName());
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        final StepExecution stepExecution = context.getStepContext().getStepExecution();
+        log.debug("progress of file: {}, read: {}, filtered: {}, written: {}",
+                fileName(stepExecution), stepExecution.getReadCount(), stepExecution.getFilterCount(), stepExecution.getWriteCount());
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        log.info("finished file: {}, status: {}, read: {}, filtered: {}, written: {}",
+                fileName(stepExecution), stepExecution.getStatus(), stepExecution.getReadCount(),
+                stepExecution.getFilterCount(), stepExecution.getWriteCount());
+        return stepExecution.getExitStatus();
+    }
+
+    private String fileName(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getString(FILE_NAME_KEY, "");
+    }
+}
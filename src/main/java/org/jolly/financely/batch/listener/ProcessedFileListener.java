@@ -0,0 +1,34 @@
+package org.jolly.financely.batch.listener;
+
+import org.jolly.financely.batch.reader.ProcessedFileRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author jolly
+ */
+@Component
+public class ProcessedFileListener implements JobExecutionListener {
+    private static final Logger log = LoggerFactory.getLogger(ProcessedFileListener.class);
+
+    // job listeners are called back in reverse order, so this one is registered after any that reads the exit status
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        int processed = 0;
+        int skipped = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            processed += stepExecution.getExecutionContext().getInt(ProcessedFileRegistry.PROCESSED_FILES_KEY, 0);
+            skipped += stepExecution.getExecutionContext().getInt(ProcessedFileRegistry.SKIPPED_FILES_KEY, 0);
+        }
+
+        log.info("job: {} processed files: {}, skipped files: {}",
+                jobExecution.getJobInstance().getJobName(), processed, skipped);
+        jobExecution.setExitStatus(jobExecution.getExitStatus()
+                .addExitDescription("processed files: %d, skipped files: %d".formatted(processed, skipped)));
+    }
+}
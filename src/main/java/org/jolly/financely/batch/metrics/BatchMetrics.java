@@ -0,0 +1,92 @@
+package org.jolly.financely.batch.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.jolly.financely.constant.Bank;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author jolly
+ */
+@Component
+public class BatchMetrics {
+    public static final String BANK_TAG = "bank";
+    public static final String JOB_TAG = "job";
+    private static final String NONE = "none";
+    private final MeterRegistry meterRegistry;
+
+    public BatchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return metrics that are not recorded anywhere, for components used outside the application context
+     */
+    public static BatchMetrics noop() {
+        return new BatchMetrics(new CompositeMeterRegistry());
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void pdfLoaded(Timer.Sample sample, Bank bank) {
+        sample.stop(meterRegistry.timer("financely.pdf.load", tags(bank)));
+    }
+
+    public void pageStripped(Timer.Sample sample, Bank bank) {
+        sample.stop(meterRegistry.timer("financely.pdf.strip", tags(bank)));
+    }
+
+    /**
+     * Records a page stripped on another thread, which carries no job.
+     */
+    public void pageStripped(Bank bank, long nanos) {
+        meterRegistry.timer("financely.pdf.strip", tags(bank)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param hit whether the text of the statement was cached
+     */
+    public void textCacheRead(Bank bank, boolean hit) {
+        meterRegistry.counter("financely.pdf.text.cache", tags(bank).and("result", hit ? "hit" : "miss")).increment();
+    }
+
+    public void transactionsExtracted(Bank bank, int count) {
+        meterRegistry.counter("financely.extract.transactions", tags(bank)).increment(count);
+    }
+
+    public void itemProcessed(Bank bank) {
+        meterRegistry.counter("financely.process.items", tags(bank)).increment();
+    }
+
+    /**
+     * @param rule the skip rule that matched the item
+     */
+    public void itemSkipped(Bank bank, String rule) {
+        meterRegistry.counter("financely.process.skipped", tags(bank).and("rule", rule)).increment();
+    }
+
+    public void parseFailed(Bank bank, Throwable cause) {
+        meterRegistry.counter("financely.process.failures", tags(bank).and("exception", cause.getClass().getSimpleName()))
+                .increment();
+    }
+
+    public void chunkWritten(Timer.Sample sample, Bank bank, int size) {
+        final Tags tags = tags(bank);
+        sample.stop(meterRegistry.timer("financely.write.chunk", tags));
+        meterRegistry.counter("financely.write.items", tags).increment(size);
+    }
+
+    private static Tags tags(Bank bank) {
+        final StepContext context = StepSynchronizationManager.getContext();
+        return Tags.of(BANK_TAG, bank != null ? bank.name() : NONE,
+                JOB_TAG, context != null ? context.getJobName() : NONE);
+    }
+}
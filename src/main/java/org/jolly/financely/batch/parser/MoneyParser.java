@@ -0,0 +1,151 @@
+package org.jolly.financely.batch.parser;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses amounts printed on statements in one pass over the text, into an exact count of units at the scale they
+ * were printed with, without going through a <code>double</code>.
+ *
+ * @author jolly
+ */
+public final class MoneyParser {
+    private MoneyParser() {}
+
+    /**
+     * Finds the amount in a transaction line: the first amount with grouping commas, e.g. <code>1,234.50</code>, or
+     * failing that the first plain decimal, e.g. <code>12.50</code>. Signs and markers around it, e.g.
+     * <code>+</code> or <code>CR</code>, are not part of the amount.
+     *
+     * @return the amount and where it is in the text, or null if there is none
+     * @throws ArithmeticException if the amount does not fit in a long of units
+     */
+    public static ParsedAmount find(CharSequence text) {
+        final int length = text.length();
+        int plainStart = -1;
+        int plainEnd = -1;
+        int i = 0;
+        while (i < length) {
+            if (!isDigit(text, i)) {
+                i++;
+                continue;
+            }
+            final int start = i;
+            while (isDigit(text, i)) {
+                i++;
+            }
+            // a grouped amount starts with one to three digits, e.g. 1,234 but not 1234,567
+            if (i - start <= 3 && isGroup(text, i)) {
+                int end = i;
+                while (isGroup(text, end)) {
+                    end += 4;
+                }
+                if (end < length && text.charAt(end) == '.' && isDigit(text, end + 1) && isDigit(text, end + 2)) {
+                    end += 3;
+                }
+                return amount(text, start, end);
+            }
+            if (plainStart < 0 && i < length && text.charAt(i) == '.' && isDigit(text, i + 1)) {
+                plainStart = start;
+                plainEnd = i + 1;
+                while (isDigit(text, plainEnd)) {
+                    plainEnd++;
+                }
+            }
+        }
+        return plainStart < 0 ? null : amount(text, plainStart, plainEnd);
+    }
+
+    /**
+     * Parses text that is an amount and nothing else, apart from surrounding whitespace: an optional sign, digits
+     * optionally grouped by commas, and optional decimals.
+     *
+     * @throws NumberFormatException if the text is not an amount
+     * @throws ArithmeticException if the amount does not fit in a long of units
+     */
+    public static ParsedAmount parse(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        int i = start;
+        final boolean negative = i < end && text.charAt(i) == '-';
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        final int digitsStart = i;
+        while (i < end && isDigit(text, i)) {
+            i++;
+        }
+        boolean valid = i - digitsStart <= 3 || !isGroup(text, i);
+        while (valid && i > digitsStart && isGroup(text, i)) {
+            i += 4;
+        }
+        final boolean integer = i > digitsStart;
+        if (valid && i < end && text.charAt(i) == '.') {
+            i++;
+            final int decimalsStart = i;
+            while (i < end && isDigit(text, i)) {
+                i++;
+            }
+            valid = integer || i > decimalsStart;
+        } else {
+            valid &= integer;
+        }
+        if (!valid || i != end) {
+            throw new NumberFormatException("invalid amount: \"" + text + "\"");
+        }
+
+        final ParsedAmount amount = amount(text, start, end);
+        return negative ? new ParsedAmount(-amount.unscaled(), amount.scale(), start, end) : amount;
+    }
+
+    private static ParsedAmount amount(CharSequence text, int start, int end) {
+        long unscaled = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c == '.') {
+                scale = 0;
+            } else if (isDigit(c)) {
+                unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            }
+        }
+        return new ParsedAmount(unscaled, Math.max(scale, 0), start, end);
+    }
+
+    /**
+     * @return whether a comma and three digits start at the index
+     */
+    private static boolean isGroup(CharSequence text, int index) {
+        return index < text.length() && text.charAt(index) == ','
+                && isDigit(text, index + 1) && isDigit(text, index + 2) && isDigit(text, index + 3);
+    }
+
+    private static boolean isDigit(CharSequence text, int index) {
+        return index < text.length() && isDigit(text.charAt(index));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * An amount of <code>unscaled * 10^-scale</code>, e.g. 123450 at scale 2 for <code>1,234.50</code>.
+     *
+     * @param start index of the amount in the text
+     * @param end   index after the amount in the text
+     */
+    public record ParsedAmount(long unscaled, int scale, int start, int end) {
+        public BigDecimal toBigDecimal() {
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.jolly.financely.batch.parser;
+
+import java.text.DateFormatSymbols;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @author jolly
+ */
+public final class StatementDateParser {
+    private static final int CACHE_SIZE = 64;
+    private final Token[] tokens;
+    private final String pattern;
+    // short month names, lower case, index 0 is January
+    private final String[] months;
+    private final CacheEntry[] cache = new CacheEntry[CACHE_SIZE];
+    private final boolean hasYear;
+
+    private StatementDateParser(String pattern, Token[] tokens, Locale locale) {
+        this.pattern = pattern;
+        this.tokens = tokens;
+        this.hasYear = Arrays.stream(tokens).anyMatch(token -> token.kind == Kind.YEAR_2 || token.kind == Kind.YEAR_4);
+        final String[] shortMonths = DateFormatSymbols.getInstance(locale).getShortMonths();
+        this.months = new String[12];
+        for (int i = 0; i < months.length; i++) {
+            months[i] = shortMonths[i].toLowerCase(locale);
+        }
+    }
+
+    public static StatementDateParser ofPattern(String pattern) {
+        return ofPattern(pattern, Locale.getDefault());
+    }
+
+    /**
+     * @param pattern of <code>d</code>, <code>dd</code>, <code>M</code>, <code>MM</code>, <code>MMM</code>,
+     *                <code>yy</code> and <code>yyyy</code>, any other non-letter being a literal
+     * @param locale  locale of the month names
+     * @throws IllegalArgumentException if the pattern has unsupported letters
+     */
+    public static StatementDateParser ofPattern(String pattern, Locale locale) {
+        final List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < pattern.length()) {
+            final char c = pattern.charAt(i);
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (Character.isLetter(c)) {
+                tokens.add(Token.of(c, count, pattern));
+            } else {
+                for (int k = 0; k < count; k++) {
+                    tokens.add(new Token(Kind.LITERAL, c));
+                }
+            }
+            i += count;
+        }
+        return new StatementDateParser(pattern, tokens.toArray(Token[]::new), locale);
+    }
+
+    /**
+     * Parses a date at the start of the text.
+     *
+     * @param defaultYear year of the date when the pattern has none
+     * @return the date and the number of characters it took up, or null if the text does not start with a date
+     */
+    public ParsedDate parse(CharSequence text, int defaultYear) {
+        return parse(text, defaultYear, 12);
+    }
+
+    /**
+     * Parses a date at the start of the text, taking the year from the statement date when the pattern has none.
+     *
+     * @param statementDate date the statement was issued, or the end of the period it covers
+     * @return the date and the number of characters it took up, or null if the text does not start with a date
+     */
+    public ParsedDate parse(CharSequence text, LocalDate statementDate) {
+        return parse(text, statementDate.getYear(), statementDate.getMonthValue());
+    }
+
+    /**
+     * @return whether the pattern has a year, so that parsed dates do not depend on a default year
+     */
+    public boolean hasYear() {
+        return hasYear;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementDateParser[" + pattern + "]";
+    }
+
+    /**
+     * @param lastMonth last month of the default year, later months belong to the year before
+     */
+    private ParsedDate parse(CharSequence text, int defaultYear, int lastMonth) {
+        int pos = 0;
+        int day = -1;
+        int month = -1;
+        int year = defaultYear;
+        for (Token token : tokens) {
+            switch (token.kind) {
+                case LITERAL -> {
+                    if (pos >= text.length() || text.charAt(pos) != token.literal) {
+                        return null;
+                    }
+                    pos++;
+                }
+                case MONTH_NAME -> {
+                    month = monthName(text, pos);
+                    if (month < 0) {
+                        return null;
+                    }
+                    pos += months[month - 1].length();
+                }
+                default -> {
+                    final int digits = digits(text, pos, token.kind.maxDigits);
+                    if (digits < token.minDigits) {
+                        return null;
+                    }
+                    final int value = number(text, pos, digits);
+                    pos += digits;
+                    switch (token.kind) {
+                        case DAY -> day = value;
+                        case MONTH -> month = value;
+                        case YEAR_2 -> year = 2000 + value;
+                        default -> year = value;
+                    }
+                }
+            }
+        }
+        if (day < 1 || day > 31 || month < 1 || month > 12) {
+            return null;
+        }
+        if (!hasYear && month > lastMonth) {
+            year--;
+        }
+        return new ParsedDate(date(year, month, day), pos);
+    }
+
+    private LocalDate date(int year, int month, int day) {
+        final int key = (year << 9) | (month << 5) | day;
+        final int slot = (key ^ (key >>> 9)) & (CACHE_SIZE - 1);
+        final CacheEntry entry = cache[slot];
+        if (entry != null && entry.key == key) {
+            return entry.date;
+        }
+        final int length = switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+        final LocalDate date = LocalDate.of(year, month, Math.min(day, length));
+        cache[slot] = new CacheEntry(key, date);
+        return date;
+    }
+
+    /**
+     * @return 1-based month of the name at the position, or -1
+     */
+    private int monthName(CharSequence text, int pos) {
+        for (int m = 0; m < months.length; m++) {
+            final String name = months[m];
+            if (pos + name.length() > text.length()) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 0; i < name.length() && match; i++) {
+                match = Character.toLowerCase(text.charAt(pos + i)) == name.charAt(i);
+            }
+            if (match) {
+                return m + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int digits(CharSequence text, int pos, int max) {
+        int n = 0;
+        while (n < max && pos + n < text.length() && isDigit(text.charAt(pos + n))) {
+            n++;
+        }
+        return n;
+    }
+
+    private static int number(CharSequence text, int pos, int digits) {
+        int value = 0;
+        for (int i = pos; i < pos + digits; i++) {
+            value = value * 10 + text.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param length number of characters of the text the date took up
+     */
+    public record ParsedDate(LocalDate date, int length) {}
+
+    private record CacheEntry(int key, LocalDate date) {}
+
+    private enum Kind {
+        LITERAL(0, 0),
+        DAY(1, 2),
+        MONTH(1, 2),
+        MONTH_NAME(0, 0),
+        YEAR_2(2, 2),
+        YEAR_4(4, 4);
+
+        private final int minDigits;
+        private final int maxDigits;
+
+        Kind(int minDigits, int maxDigits) {
+            this.minDigits = minDigits;
+            this.maxDigits = maxDigits;
+        }
+    }
+
+    private record Token(Kind kind, char literal, int minDigits) {
+        Token(Kind kind, char literal) {
+            this(kind, literal, kind.minDigits);
+        }
+
+        static Token of(char letter, int count, String pattern) {
+            final Kind kind = switch (letter) {
+                case 'd' -> count <= 2 ? Kind.DAY : null;
+                case 'M' -> count <= 2 ? Kind.MONTH : count == 3 ? Kind.MONTH_NAME : null;
+                case 'y' -> count == 2 ? Kind.YEAR_2 : count == 4 ? Kind.YEAR_4 : null;
+                default -> null;
+            };
+            if (kind == null) {
+                throw new IllegalArgumentException("unsupported date pattern: " + pattern);
+            }
+            // dd and MM take exactly two digits
+            return new Token(kind, '\0', count == 2 && kind != Kind.YEAR_2 ? 2 : kind.minDigits);
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package org.jolly.financely.batch.processor;
 
 import org.jolly.financely.batch.extractor.DefaultFieldExtractor;
+import org.jolly.financely.batch.layout.BankLayout;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.batch.parser.MoneyParser;
+import org.jolly.financely.batch.parser.StatementDateParser;
+import org.jolly.financely.batch.rule.RuleSet;
 import org.jolly.financely.constant.Bank;
-import org.jolly.financely.constant.MDCKey;
 import org.jolly.financely.model.Instalment;
 import org.jolly.financely.model.RawTransaction;
 import org.jolly.financely.model.Transaction;
 import org.jolly.financely.model.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
@@ -19,52 +22,72 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.Year;
 import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
 
 /**
+ * Turns raw transactions into transactions by the {@link BankLayout} of their bank, taken for each transaction so
+ * that a reloaded layout applies from the next one.
+ *
  * @author jolly
  */
 @Component(value = "bankAccountProcessor")
 @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class BankAccountProcessor implements ItemProcessor<RawTransaction, Transaction> {
     private static final Logger log = LoggerFactory.getLogger(BankAccountProcessor.class);
-    private DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("ddMMMyy");
-    // allow for optional min, max length for date strings
-    // set max to null to disable optional
-    private DateLength dateLengths;
-    private String[] creditTransfer;
-    private String[] itemsToSkip;
-    private final DefaultFieldExtractor transferAmountExtractor;
+    private Supplier<BankLayout> layout;
+    private int defaultYear = Year.now().getValue();
+    private Bank bank;
     private final DefaultFieldExtractor instalmentExtractor;
+    private final BatchMetrics batchMetrics;
 
-    public BankAccountProcessor(DefaultFieldExtractor transferAmountExtractor, DefaultFieldExtractor instalmentExtractor) {
-        this.transferAmountExtractor = transferAmountExtractor;
+    public BankAccountProcessor(DefaultFieldExtractor instalmentExtractor, BatchMetrics batchMetrics) {
         this.instalmentExtractor = instalmentExtractor;
+        this.batchMetrics = batchMetrics;
     }
 
-    public void setDateTimeFormatter(DateTimeFormatter dateTimeFormatter) {
-        this.dateTimeFormatter = dateTimeFormatter;
+    /**
+     * @param layout current layout of the bank
+     */
+    public void setLayout(Supplier<BankLayout> layout) {
+        this.layout = layout;
     }
 
-    public void setDateLengths(DateLength dateLengths) {
-        this.dateLengths = dateLengths;
+    /**
+     * @param defaultYear year of dates parsed by the date parser from a pattern without one, when the statement date
+     *                    is not known
+     */
+    public void setDefaultYear(int defaultYear) {
+        this.defaultYear = defaultYear;
     }
 
-    public void setCreditTransfer(String[] creditTransfer) {
-        this.creditTransfer = creditTransfer;
-    }
-
-    public void setItemsToSkip(String[] itemsToSkip) {
-        this.itemsToSkip = itemsToSkip;
+    public void setBank(Bank bank) {
+        this.bank = bank;
     }
 
     @Override
     public Transaction process(@NonNull RawTransaction item) {
-        final DateInfo dateInfo = extractDate(item);
+        try {
+            final Transaction transaction = toTransaction(item);
+            if (transaction != null) {
+                batchMetrics.itemProcessed(bank);
+            }
+            return transaction;
+        } catch (RuntimeException e) {
+            batchMetrics.parseFailed(bank, e);
+            throw e;
+        }
+    }
+
+    private Transaction toTransaction(RawTransaction item) {
+        final BankLayout layout = this.layout.get();
+        final DateInfo dateInfo = extractDate(item, layout.dateParser());
         String fullDesc = item.getMergedLines(dateInfo.length());
 
-        if (shouldSkip(fullDesc)) {
+        final String skipRule = skipRule(fullDesc, layout.itemsToSkip());
+        if (skipRule != null) {
+            batchMetrics.itemSkipped(bank, skipRule);
             return null;
         }
 
@@ -81,76 +104,52 @@ public class BankAccountProcessor implements ItemProcessor<RawTransaction, Trans
             isInstalment = true;
         }
 
-        final String amountStr = transferAmountExtractor.getField(fullDesc)
-                .replace(",", "");
-        final String desc = fullDesc.replace(transferAmountExtractor.getField(fullDesc), "");
+        final MoneyParser.ParsedAmount amount = MoneyParser.find(fullDesc);
+        if (amount == null) {
+            throw new NumberFormatException("amount not found in: " + fullDesc);
+        }
+        final String desc = fullDesc.substring(0, amount.start()) + fullDesc.substring(amount.end());
         Money credit = null;
         Money debit = null;
-        if (isCreditTransfer(fullDesc)) {
-            credit = Money.of(BigDecimal.valueOf(Double.parseDouble(amountStr)), true);
+        if (layout.creditTransfer().matches(fullDesc)) {
+            credit = Money.of(amount.toBigDecimal(), true);
         } else {
-            debit = Money.of(BigDecimal.valueOf(Double.parseDouble(amountStr)), true);
+            debit = Money.of(amount.toBigDecimal(), true);
         }
 
-        return new Transaction.Builder(item.getFile(), dateInfo.date, Bank.valueOf(MDC.get(MDCKey.BANK.name())), desc)
+        return new Transaction.Builder(item.getFile(), dateInfo.date, bank, desc)
                 .credit(credit)
                 .debit(debit)
                 .instalment(instalment)
                 .isInstalment(isInstalment)
+                .fileDigest(item.getFileDigest())
+                .position(item.getPage(), item.getLine())
                 .build();
     }
 
-    private DateInfo extractDate(RawTransaction rawTransaction) {
-        int i = dateLengths.min();
-        String dateStr = null;
-
-        if (dateLengths.max() == null) {
-            dateStr = rawTransaction.getLines().getFirst().substring(0, i);
-            final LocalDate localDate = LocalDate.parse(dateStr, dateTimeFormatter);
-            return new DateInfo(i, localDate);
-        } else {
-            while (i <= dateLengths.max()) {
-                dateStr = rawTransaction.getLines().getFirst().substring(0, i);
-                try {
-                    final LocalDate localDate = LocalDate.parse(dateStr, dateTimeFormatter);
-                    return new DateInfo(i, localDate);
-                } catch (DateTimeParseException ignored) {
-                    // continue
-                }
-                i++;
-            }
-        }
-
-        throw new DateTimeParseException("Date not found or invalid format", dateStr, i);
-    }
-
-    private boolean isCreditTransfer(String desc) {
-        if (creditTransfer != null) {
-            for (String ct : creditTransfer) {
-                if (desc.matches(ct)) {
-                    return true;
-                }
-            }
+    private DateInfo extractDate(RawTransaction rawTransaction, StatementDateParser dateParser) {
+        final CharSequence firstLine = rawTransaction.getFirstLine();
+        final LocalDate statementDate = rawTransaction.getStatementDate();
+        final StatementDateParser.ParsedDate parsed = statementDate != null
+                ? dateParser.parse(firstLine, statementDate)
+                : dateParser.parse(firstLine, defaultYear);
+        if (parsed == null) {
+            throw new DateTimeParseException("Date not found or invalid format", firstLine, 0);
         }
-        return false;
+        return new DateInfo(parsed.length(), parsed.date());
     }
 
-    private boolean shouldSkip(String desc) {
+    /**
+     * @return the rule the description is skipped by, or null if it is kept
+     */
+    private String skipRule(String desc, RuleSet itemsToSkip) {
         if (desc.trim().isEmpty()) {
-            return true;
-        }
-
-        if (itemsToSkip != null) {
-            for (String item : itemsToSkip) {
-                if (desc.matches(item)) {
-                    return true;
-                }
-            }
+            return "empty";
         }
 
-        return false;
+        final int rule = itemsToSkip.firstMatch(desc);
+        return rule >= 0 ? itemsToSkip.rule(rule) : null;
     }
 
-    public record DateLength(int min, Integer max){}
     private record DateInfo(int length, LocalDate date){}
 }
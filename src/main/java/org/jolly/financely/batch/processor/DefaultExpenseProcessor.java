@@ -1,5 +1,6 @@
 package org.jolly.financely.batch.processor;
 
+import org.jolly.financely.batch.rule.RuleSet;
 import org.jolly.financely.model.Expense;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,15 +16,15 @@ import org.springframework.stereotype.Component;
 @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class DefaultExpenseProcessor implements ItemProcessor<Expense, Expense> {
     private static final Logger log = LoggerFactory.getLogger(DefaultExpenseProcessor.class);
-    private String[] creditTransfer;
-    private String[] itemsToSkip;
+    private RuleSet creditTransfer = RuleSet.compile();
+    private RuleSet itemsToSkip = RuleSet.compile();
 
     public void setCreditTransfer(String[] creditTransfer) {
-        this.creditTransfer = creditTransfer;
+        this.creditTransfer = RuleSet.compile(creditTransfer);
     }
 
     public void setItemsToSkip(String[] itemsToSkip) {
-        this.itemsToSkip = itemsToSkip;
+        this.itemsToSkip = RuleSet.compile(itemsToSkip);
     }
 
     @Override
@@ -40,14 +41,6 @@ public class DefaultExpenseProcessor implements ItemProcessor<Expense, Expense>
             return true;
         }
 
-        if (itemsToSkip != null) {
-            for (String item : itemsToSkip) {
-                if (s.matches(item)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return itemsToSkip.matches(s);
     }
 }
@@ -0,0 +1,191 @@
+package org.jolly.financely.batch.reader;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.jolly.financely.constant.Bank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author jolly
+ */
+@Component
+public class BankDetector {
+    private static final Logger log = LoggerFactory.getLogger(BankDetector.class);
+    private static final int LEGAL_NAME = 10;
+    private static final int BRAND = 2;
+    private static final int HINT = 1;
+    private static final Map<Bank, List<Signature>> SIGNATURES = new EnumMap<>(Bank.class);
+
+    static {
+        SIGNATURES.put(Bank.UOB, List.of(
+                new Signature("united overseas bank", LEGAL_NAME),
+                new Signature("uob", BRAND),
+                new Signature("uob.com.my", BRAND)));
+        SIGNATURES.put(Bank.CIMB, List.of(
+                new Signature("cimb bank berhad", LEGAL_NAME),
+                new Signature("cimb islamic bank berhad", LEGAL_NAME),
+                new Signature("cimb", BRAND),
+                new Signature("cimbclicks", BRAND)));
+        SIGNATURES.put(Bank.MBB, List.of(
+                new Signature("malayan banking berhad", LEGAL_NAME),
+                new Signature("maybank islamic berhad", LEGAL_NAME),
+                new Signature("maybank", BRAND),
+                new Signature("maybank2u", BRAND)));
+        SIGNATURES.put(Bank.PBB, List.of(
+                new Signature("public bank berhad", LEGAL_NAME),
+                new Signature("public islamic bank berhad", LEGAL_NAME),
+                new Signature("public bank", BRAND),
+                new Signature("pbebank", BRAND),
+                new Signature("pbe", HINT)));
+        SIGNATURES.put(Bank.TNG, List.of(
+                new Signature("tng digital sdn bhd", LEGAL_NAME),
+                new Signature("touch 'n go", BRAND),
+                new Signature("touch n go", BRAND),
+                new Signature("tng ewallet", BRAND),
+                new Signature("ewallet", HINT)));
+        SIGNATURES.put(Bank.GXB, List.of(
+                new Signature("gx bank berhad", LEGAL_NAME),
+                new Signature("gx bank", BRAND),
+                new Signature("gxbank", BRAND)));
+    }
+
+    private final PdfLoader pdfLoader;
+    private final double minConfidence;
+
+    /**
+     * @param minConfidence confidence from which a detected bank is taken for granted
+     */
+    public BankDetector(PdfLoader pdfLoader, @Value("${batch.detect.min-confidence:0.6}") double minConfidence) {
+        Assert.isTrue(minConfidence > 0 && minConfidence <= 1, "min confidence must be in (0, 1]");
+        this.pdfLoader = pdfLoader;
+        this.minConfidence = minConfidence;
+    }
+
+    /**
+     * @param password password of the document, null if it is not encrypted
+     */
+    public Detection detect(Resource resource, String password) throws IOException {
+        try (PdfLoader.LoadedPdf pdf = pdfLoader.load(resource, password)) {
+            final Detection detection = detect(pdf.document(), null);
+            log.debug("detected bank: {} with confidence: {} of file: {}", detection.bank(), detection.confidence(), resource);
+            return detection;
+        }
+    }
+
+    /**
+     * @param firstPage text of the first page if already stripped, null to strip it when needed
+     */
+    public Detection detect(PDDocument document, String firstPage) throws IOException {
+        final String info = documentInfo(document);
+        final Detection fromInfo = detect(info);
+        if (isConfident(fromInfo) || document.getNumberOfPages() == 0) {
+            return fromInfo;
+        }
+
+        if (firstPage == null) {
+            final PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(1);
+            stripper.setEndPage(1);
+            firstPage = stripper.getText(document);
+        }
+        return detect(info + firstPage);
+    }
+
+    /**
+     * @param documentInfo document information as returned by {@link #documentInfo(PDDocument)}
+     * @param firstPage    text of the first page, null if the document has no pages
+     */
+    public Detection detect(String documentInfo, String firstPage) {
+        final Detection fromInfo = detect(documentInfo);
+        if (isConfident(fromInfo) || firstPage == null) {
+            return fromInfo;
+        }
+        return detect(documentInfo + firstPage);
+    }
+
+    /**
+     * @return the title, author, subject, keywords, creator and producer of the document that are set, one per line
+     */
+    public static String documentInfo(PDDocument document) {
+        final StringBuilder info = new StringBuilder();
+        final PDDocumentInformation information = document.getDocumentInformation();
+        for (String value : new String[]{information.getTitle(), information.getAuthor(), information.getSubject(),
+                information.getKeywords(), information.getCreator(), information.getProducer()}) {
+            if (value != null) {
+                info.append(value).append('\n');
+            }
+        }
+        return info.toString();
+    }
+
+    public Detection detect(CharSequence text) {
+        final String normalized = text.toString().toLowerCase(Locale.ROOT).replace('’', '\'');
+        Bank best = null;
+        int bestScore = 0;
+        int total = 0;
+        for (Map.Entry<Bank, List<Signature>> entry : SIGNATURES.entrySet()) {
+            int score = 0;
+            for (Signature signature : entry.getValue()) {
+                if (containsWord(normalized, signature.phrase())) {
+                    score += signature.weight();
+                }
+            }
+            total += score;
+            if (score > bestScore) {
+                best = entry.getKey();
+                bestScore = score;
+            }
+        }
+        if (best == null) {
+            return Detection.NONE;
+        }
+        final double confidence = (double) bestScore / total * Math.min(1.0, (double) bestScore / LEGAL_NAME);
+        return new Detection(best, confidence);
+    }
+
+    /**
+     * @return whether a bank was detected with at least the minimum confidence
+     */
+    public boolean isConfident(Detection detection) {
+        return detection.bank() != null && detection.confidence() >= minConfidence;
+    }
+
+    /**
+     * @return whether the phrase is in the text, not as part of a longer word
+     */
+    private static boolean containsWord(String text, String phrase) {
+        int from = 0;
+        int index;
+        while ((index = text.indexOf(phrase, from)) >= 0) {
+            final int end = index + phrase.length();
+            if ((index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)))
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                return true;
+            }
+            from = index + 1;
+        }
+        return false;
+    }
+
+    private record Signature(String phrase, int weight) {}
+
+    /**
+     * @param bank       most likely bank, null if no signature was found
+     * @param confidence from 0 to 1
+     */
+    public record Detection(Bank bank, double confidence) {
+        public static final Detection NONE = new Detection(null, 0);
+    }
+}
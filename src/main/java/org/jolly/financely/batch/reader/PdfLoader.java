@@ -0,0 +1,147 @@
+package org.jolly.financely.batch.reader;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * @author jolly
+ */
+@Component
+public class PdfLoader {
+    private static final Logger log = LoggerFactory.getLogger(PdfLoader.class);
+    private static final DataSize DEFAULT_MAX_MAIN_MEMORY = DataSize.ofMegabytes(16);
+    private final Mode mode;
+    private final MemoryUsageSetting memoryUsageSetting;
+
+    public PdfLoader() {
+        this(Mode.MAPPED, StreamCache.MIXED, DEFAULT_MAX_MAIN_MEMORY);
+    }
+
+    @Autowired
+    public PdfLoader(@Value("${batch.pdf.load-mode:MAPPED}") Mode mode,
+                     @Value("${batch.pdf.stream-cache:MIXED}") StreamCache streamCache,
+                     @Value("${batch.pdf.stream-cache.max-main-memory:16MB}") DataSize maxMainMemory) {
+        this.mode = mode;
+        this.memoryUsageSetting = switch (streamCache) {
+            case MEMORY -> MemoryUsageSetting.setupMainMemoryOnly();
+            case TEMP_FILE -> MemoryUsageSetting.setupTempFileOnly();
+            case MIXED -> MemoryUsageSetting.setupMixed(maxMainMemory.toBytes());
+        };
+    }
+
+    /**
+     * @param password password of the document, null if it is not encrypted
+     */
+    public LoadedPdf load(Resource resource, String password) throws IOException {
+        Path spooled = null;
+        final File file;
+        if (resource.isFile()) {
+            file = resource.getFile();
+        } else {
+            spooled = spool(resource);
+            file = spooled.toFile();
+        }
+
+        RandomAccessRead source = null;
+        try {
+            source = switch (mode) {
+                case MAPPED -> new RandomAccessReadMemoryMappedFile(file);
+                case BUFFERED -> new RandomAccessReadBufferedFile(file);
+            };
+            final RandomAccessStreamCache.StreamCacheCreateFunction streamCache = memoryUsageSetting.streamCache;
+            final PDDocument document = Loader.loadPDF(source, password == null ? "" : password, null, null, streamCache);
+            return new LoadedPdf(document, source, spooled);
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(source);
+            deleteQuietly(spooled);
+            throw e;
+        }
+    }
+
+    private static Path spool(Resource resource) throws IOException {
+        final Path spooled = Files.createTempFile("financely-", ".pdf");
+        log.debug("copying resource: {} to file: {}", resource, spooled);
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(spooled);
+            throw e;
+        }
+        return spooled;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("failed to delete temporary file: {}", path, e);
+        }
+    }
+
+    public enum Mode {
+        MAPPED,
+        BUFFERED
+    }
+
+    public enum StreamCache {
+        MEMORY,
+        TEMP_FILE,
+        // in memory up to the configured size, then in a temporary file
+        MIXED
+    }
+
+    /**
+     * An open document, along with the source it is read from and the temporary copy of a non-file resource, all
+     * released on close.
+     */
+    public static final class LoadedPdf implements Closeable {
+        private final PDDocument document;
+        private final RandomAccessRead source;
+        private final Path spooled;
+
+        private LoadedPdf(PDDocument document, RandomAccessRead source, Path spooled) {
+            this.document = document;
+            this.source = source;
+            this.spooled = spooled;
+        }
+
+        public PDDocument document() {
+            return document;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                document.close();
+            } finally {
+                // unmaps a mapped file right away instead of when the buffer is garbage collected
+                IOUtils.closeQuietly(source);
+                deleteQuietly(spooled);
+            }
+        }
+    }
+}
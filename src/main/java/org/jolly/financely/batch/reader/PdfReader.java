@@ -1,26 +1,39 @@
 package org.jolly.financely.batch.reader;
 
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.jolly.financely.batch.extractor.DefaultLineExtractor;
 import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.extractor.StatementDateExtractor;
+import org.jolly.financely.batch.launch.JobLaunchService;
+import org.jolly.financely.batch.layout.BankLayout;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.exception.PdfCloseException;
 import org.jolly.financely.exception.PdfOpenException;
 import org.jolly.financely.model.RawTransaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.*;
 import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author jolly
@@ -29,21 +42,114 @@ import java.util.List;
 @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class PdfReader implements ResourceAwareItemReaderItemStream<RawTransaction> {
     private static final Logger log = LoggerFactory.getLogger(PdfReader.class);
+    // page 0 means no transaction has been extracted yet
+    private static final String CURRENT_PAGE = "current.page";
+    private static final String CURRENT_LINE = "current.line";
+    private static final String STATEMENT_DATE = "statement.date";
+    private static final String FILE_DIGEST = "file.digest";
+    private static final String STAGING_FILE = "staging.file";
+    private static final String STAGING_OFFSET = "staging.offset";
     private Resource resource;
     private String pdfPassword;
-    private List<RawTransaction> items = new LinkedList<>();
-    private int currentIndex = 0;
+    private int pageWindow = 1;
+    private int stripWorkers = 1;
+    private final Deque<RawTransaction> items = new ArrayDeque<>();
     private LineExtractor lineExtractor = new DefaultLineExtractor();
-    private PDDocument pdDocument;
+    private StatementDateExtractor statementDateExtractor;
+    private Supplier<BankLayout> layout;
+    private LocalDate statementDate;
+    // text of the first page once stripped for the bank or statement date, until it is read for transactions
+    private String headerText;
+    // text of the pages of the current file
+    private StatementPages pages;
+    private int pageCount;
+    private int nextPage;
+    private int fromLine;
+    private boolean exhausted;
+    private Bank bank;
+    private final ProcessedFileRegistry processedFileRegistry;
+    private final BatchMetrics batchMetrics;
+    private final PdfLoader pdfLoader;
+    private final TaskExecutor pageStripTaskExecutor;
+    private final StagingStore stagingStore;
+    private final BankDetector bankDetector;
+    private final TextCache textCache;
+    // transactions of the current file once staged, read instead of the buffer
+    private StagingStore.StagedReader staged;
+    // state of the current file, until it is recorded as processed
+    private ProcessedFileRegistry.FileState fileState;
+    // content digest of the current file, which its transactions are fingerprinted with
+    private String fileDigest;
+
+    public PdfReader() {
+        this(null, BatchMetrics.noop(), new PdfLoader(), null, null, null, null);
+    }
+
+    /**
+     * @param stagingStore store of extracted transactions to resume from on restart, null to strip again instead
+     * @param bankDetector detector of files from another bank than the one set, to skip them, null to read all
+     * @param textCache    cache of stripped page text to read statements from, null to always strip
+     */
+    @Autowired
+    public PdfReader(ProcessedFileRegistry processedFileRegistry, BatchMetrics batchMetrics, PdfLoader pdfLoader,
+                     @Qualifier("pageStripTaskExecutor") TaskExecutor pageStripTaskExecutor,
+                     StagingStore stagingStore, BankDetector bankDetector, TextCache textCache) {
+        this.processedFileRegistry = processedFileRegistry;
+        this.batchMetrics = batchMetrics;
+        this.pdfLoader = pdfLoader;
+        this.pageStripTaskExecutor = pageStripTaskExecutor;
+        this.stagingStore = stagingStore != null && stagingStore.isEnabled() ? stagingStore : null;
+        this.bankDetector = bankDetector;
+        this.textCache = textCache != null && textCache.isEnabled() ? textCache : null;
+    }
 
     public void setLineExtractor(LineExtractor lineExtractor) {
         this.lineExtractor = lineExtractor;
     }
 
+    /**
+     * @param layout current layout of the bank, whose line rules and statement date extractor are taken each time a
+     *               file is opened, in place of those set
+     */
+    public void setLayout(Supplier<BankLayout> layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * @param statementDateExtractor extractor of the statement date from the first page, null to leave it unknown
+     */
+    public void setStatementDateExtractor(StatementDateExtractor statementDateExtractor) {
+        this.statementDateExtractor = statementDateExtractor;
+    }
+
+    /**
+     * @param bank bank the statements are from, used to tag metrics and to skip files detected as from another bank
+     */
+    public void setBank(Bank bank) {
+        this.bank = bank;
+    }
+
     public void setPdfPassword(String password) {
         this.pdfPassword = password;
     }
 
+    /**
+     * @param pageWindow number of pages stripped each time the buffer runs dry
+     */
+    public void setPageWindow(int pageWindow) {
+        Assert.isTrue(pageWindow > 0, "page window must be positive");
+        this.pageWindow = pageWindow;
+    }
+
+    /**
+     * @param stripWorkers number of threads stripping pages of one document at once, each taking its own page window;
+     *                     ignored without a task executor
+     */
+    public void setStripWorkers(int stripWorkers) {
+        Assert.isTrue(stripWorkers > 0, "strip workers must be positive");
+        this.stripWorkers = stripWorkers;
+    }
+
     @Override
     public void setResource(@NonNull Resource resource) {
         this.resource = resource;
@@ -51,22 +157,89 @@ public class PdfReader implements ResourceAwareItemReaderItemStream<RawTransacti
 
     @Override
     public RawTransaction read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        if (currentIndex < items.size()) {
-            return items.get(currentIndex++);
+        final RawTransaction item;
+        if (staged != null) {
+            item = staged.read();
+            if (item != null) {
+                item.setFileDigest(fileDigest);
+            }
+        } else {
+            // the head is only complete once a following transaction exists or the document is done
+            while (!exhausted && items.size() < 2) {
+                readPages();
+            }
+            item = items.pollFirst();
         }
-        return null;
+        if (item == null && fileState != null) {
+            processedFileRegistry.markProcessed(resource, fileState);
+            fileState = null;
+        }
+        return item;
     }
 
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         log.info("started processing file: {}", resource);
 
-        if (executionContext.containsKey("current.index")) {
-            currentIndex = executionContext.getInt("current.index");
+        items.clear();
+        exhausted = false;
+        statementDate = null;
+        fileDigest = null;
+        headerText = null;
+        staged = null;
+        if (layout != null) {
+            final BankLayout current = layout.get();
+            lineExtractor.rules(current.lineRules());
+            statementDateExtractor = current.statementDateExtractor();
+        }
+        final int page = executionContext.getInt(CURRENT_PAGE, 0);
+        try {
+            fileState = processedFileRegistry != null ? processedFileRegistry.check(resource) : null;
+            pages = new StatementPages(resource, pdfPassword, fileState != null ? fileState.digest() : null, bank,
+                    pdfLoader, batchMetrics, textCache, pageStripTaskExecutor, stripWorkers);
+            if (skip(executionContext)) {
+                pages.close();
+                pages = null;
+                pageCount = 0;
+                exhausted = true;
+                return;
+            }
+            // saved, since a restart from the staged file may not find the file any more
+            if (page > 0 && executionContext.containsKey(FILE_DIGEST)) {
+                fileDigest = executionContext.getString(FILE_DIGEST);
+            } else {
+                fileDigest = fileState != null && fileState.digest() != null
+                        ? fileState.digest() : ProcessedFileRegistry.digest(resource);
+            }
+            if (page > 0 && resumeStaged(executionContext)) {
+                return;
+            }
+            pageCount = pages.pageCount();
+            if (page > 0 && executionContext.containsKey(STATEMENT_DATE)) {
+                statementDate = LocalDate.parse(executionContext.getString(STATEMENT_DATE));
+            } else if (statementDateExtractor != null) {
+                readStatementDate();
+            }
+        } catch (IOException e) {
+            throw new PdfOpenException(e);
+        }
+
+        if (page > 0) {
+            nextPage = page;
+            fromLine = executionContext.getInt(CURRENT_LINE, 0);
+            // a saved position always points at the start of a transaction, so reading has already started
+            lineExtractor.reset(true);
+            log.debug("resuming file: {} from page: {}, line: {}", resource, nextPage, fromLine);
         } else {
-            currentIndex = 0;
+            nextPage = 1;
+            fromLine = 0;
+            lineExtractor.reset(false);
+        }
+        exhausted = nextPage > pageCount;
+
+        if (stagingStore != null && !exhausted) {
             try {
-                readLines();
+                stage();
             } catch (IOException e) {
                 throw new PdfOpenException(e);
             }
@@ -75,34 +248,216 @@ public class PdfReader implements ResourceAwareItemReaderItemStream<RawTransacti
 
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
-        executionContext.putInt("current.index", currentIndex);
+        final RawTransaction head = staged != null ? staged.peek() : items.peekFirst();
+        if (head != null) {
+            executionContext.putInt(CURRENT_PAGE, head.getPage());
+            executionContext.putInt(CURRENT_LINE, head.getLine());
+        } else if (exhausted) {
+            executionContext.putInt(CURRENT_PAGE, pageCount + 1);
+            executionContext.putInt(CURRENT_LINE, 0);
+        } else {
+            executionContext.putInt(CURRENT_PAGE, 0);
+            executionContext.putInt(CURRENT_LINE, 0);
+        }
+        if (statementDate != null) {
+            executionContext.putString(STATEMENT_DATE, statementDate.toString());
+        } else {
+            executionContext.remove(STATEMENT_DATE);
+        }
+        if (fileDigest != null) {
+            executionContext.putString(FILE_DIGEST, fileDigest);
+        } else {
+            executionContext.remove(FILE_DIGEST);
+        }
+        if (staged != null && head != null) {
+            executionContext.putString(STAGING_FILE, staged.file().toString());
+            executionContext.putLong(STAGING_OFFSET, staged.offset());
+        } else {
+            executionContext.remove(STAGING_FILE);
+            executionContext.remove(STAGING_OFFSET);
+        }
     }
 
     @Override
     public void close() throws ItemStreamException {
         log.debug("finished processing file: {}", resource);
 
-        if (pdDocument != null && resource != null) {
+        items.clear();
+        headerText = null;
+        IOException failure = null;
+        if (staged != null) {
             try {
-                pdDocument.close();
+                // read to the end, so not needed for a restart
+                if (staged.peek() == null) {
+                    staged.delete();
+                } else {
+                    staged.close();
+                }
             } catch (IOException e) {
-                throw new PdfCloseException(e);
+                failure = e;
+            } finally {
+                staged = null;
             }
         }
+        if (pages != null) {
+            try {
+                pages.close();
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                pages = null;
+            }
+        }
+        if (failure != null) {
+            throw new PdfCloseException(failure);
+        }
+    }
+
+    /**
+     * Opens the staged file saved in the execution context at the saved offset, if it is still there.
+     */
+    private boolean resumeStaged(ExecutionContext executionContext) throws IOException {
+        if (stagingStore == null || !executionContext.containsKey(STAGING_FILE)) {
+            return false;
+        }
+        staged = stagingStore.open(Path.of(executionContext.getString(STAGING_FILE)),
+                executionContext.getLong(STAGING_OFFSET), resource.getFilename());
+        if (staged == null) {
+            return false;
+        }
+        pageCount = staged.pageCount();
+        exhausted = true;
+        if (executionContext.containsKey(STATEMENT_DATE)) {
+            statementDate = LocalDate.parse(executionContext.getString(STATEMENT_DATE));
+        }
+        log.debug("resuming file: {} from staged offset: {}", resource, staged.offset());
+        return true;
     }
 
-    private void readLines() throws IOException {
-        items = new LinkedList<>();
-        if (pdfPassword == null) {
-            pdDocument = Loader.loadPDF(resource.getFile());
+    /**
+     * Extracts the rest of the document into a staged file and closes it, reading goes on from the staged file.
+     */
+    private void stage() throws IOException {
+        try (StagingStore.StagedWriter writer = stagingStore.create(jobExecutionId(), resource, pageCount)) {
+            while (!exhausted) {
+                readPages();
+                // the last transaction may continue on the next page
+                while (items.size() > 1 || exhausted && !items.isEmpty()) {
+                    writer.append(items.pollFirst());
+                }
+            }
+            staged = writer.finish(resource.getFilename());
+        }
+        pages.close();
+        pages = null;
+    }
+
+    private static Long jobExecutionId() {
+        final StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null : context.getStepExecution().getJobExecutionId();
+    }
+
+    private static String bankParameter() {
+        final StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null
+                : context.getStepExecution().getJobParameters().getString(JobLaunchService.BANK_PARAMETER);
+    }
+
+    /**
+     * Decides whether the file is skipped, as unchanged since it was loaded or as confidently from another bank than
+     * the one set. Only a file that is read keeps its state, to be recorded as processed once read to the end.
+     */
+    private boolean skip(ExecutionContext executionContext) throws IOException {
+        if (fileState != null && fileState.unchanged()) {
+            log.info("skipping unchanged file: {}", resource);
+            fileState = null;
+            return true;
+        }
+        // checked on restart too, since a skipped file is saved as read to the end of no pages, but a staged file was
+        // checked before it was staged
+        if (!executionContext.containsKey(STAGING_FILE) && !isFromBank()) {
+            if (fileState != null) {
+                // not recorded, so the file is read when given to the job of its bank
+                processedFileRegistry.markSkipped(resource);
+                fileState = null;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the file is not, by its first page, confidently from another bank than the one set.
+     */
+    private boolean isFromBank() throws IOException {
+        if (bankDetector == null || bank == null || pages.pageCount() == 0) {
+            return true;
+        }
+        if (bank.name().equals(bankParameter())) {
+            log.debug("reading file: {} as bank: {} given on upload", resource, bank);
+            return true;
+        }
+        stripHeader();
+        final BankDetector.Detection detection = bankDetector.detect(pages.documentInfo(), headerText);
+        if (bankDetector.isConfident(detection) && detection.bank() != bank) {
+            log.warn("skipping file: {} of bank: {}, detected as bank: {} with confidence: {}",
+                    resource, bank, detection.bank(), detection.confidence());
+            return false;
+        }
+        return true;
+    }
+
+    private void readStatementDate() throws IOException {
+        if (pageCount == 0) {
+            return;
+        }
+        stripHeader();
+        statementDate = statementDateExtractor.extract(headerText);
+        if (statementDate == null) {
+            log.warn("statement date not found in file: {}", resource);
         } else {
-            pdDocument = Loader.loadPDF(resource.getFile(), pdfPassword);
+            log.info("statement date: {} of file: {}", statementDate, resource);
+        }
+    }
+
+    private void stripHeader() throws IOException {
+        if (headerText == null) {
+            headerText = pages.page(1);
+        }
+    }
+
+    private void readPages() throws IOException {
+        final List<RawTransaction> extracted = new ArrayList<>();
+        final int firstPage = nextPage;
+        final int lastPage = Math.min(nextPage + pageWindow * pages.workers() - 1, pageCount);
+        final String[] texts = pages.workers() > 1 && lastPage > firstPage ? pages.pages(firstPage, lastPage) : null;
+
+        while (nextPage <= lastPage && !exhausted) {
+            final String content;
+            if (texts != null) {
+                content = texts[nextPage - firstPage];
+            } else if (nextPage == 1 && headerText != null) {
+                content = headerText;
+            } else {
+                content = pages.page(nextPage);
+            }
+            log.debug("read page: {} of {}, file: {}", nextPage, pageCount, resource.getFilename());
+            if (content != null && !lineExtractor.extractLine(content, nextPage, fromLine, extracted, resource.getFilename())) {
+                exhausted = true;
+            }
+            fromLine = 0;
+            nextPage++;
+        }
+
+        if (nextPage > pageCount) {
+            exhausted = true;
         }
-        PDFTextStripper stripper = new PDFTextStripper();
-        stripper.setSortByPosition(true);
-        String content = stripper.getText(pdDocument);
-        if (content != null) {
-            lineExtractor.extractLine(content, items, resource.getFilename());
+        headerText = null;
+        for (RawTransaction transaction : extracted) {
+            transaction.setStatementDate(statementDate);
+            transaction.setFileDigest(fileDigest);
         }
+        batchMetrics.transactionsExtracted(bank, extracted.size());
+        items.addAll(extracted);
     }
 }
@@ -0,0 +1,136 @@
+package org.jolly.financely.batch.reader;
+
+import org.jolly.financely.model.ProcessedFile;
+import org.jolly.financely.repository.ProcessedFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * @author jolly
+ */
+@Component
+public class ProcessedFileRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ProcessedFileRegistry.class);
+    public static final String PROCESSED_FILES_KEY = "files.processed";
+    public static final String SKIPPED_FILES_KEY = "files.skipped";
+    private final ProcessedFileRepository processedFileRepository;
+    private final boolean skipUnchanged;
+
+    public ProcessedFileRegistry(ProcessedFileRepository processedFileRepository,
+                                 @Value("${batch.file.skip-unchanged:true}") boolean skipUnchanged) {
+        this.processedFileRepository = processedFileRepository;
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * Looks the file up in the registry, counting it as skipped if it is unchanged.
+     */
+    public FileState check(Resource resource) throws IOException {
+        final String path = resource.getURI().toString();
+        final long size = resource.contentLength();
+        final long lastModified = resource.lastModified();
+        if (!skipUnchanged) {
+            return new FileState(path, size, lastModified, null, false);
+        }
+
+        final Optional<ProcessedFile> known = processedFileRepository.findByPath(path);
+        if (known.isPresent() && known.get().getSize() == size && known.get().getLastModified() == lastModified) {
+            return skipped(new FileState(path, size, lastModified, known.get().getDigest(), true));
+        }
+
+        final String digest = digest(resource);
+        if (known.isPresent() && known.get().getDigest().equals(digest)) {
+            // only the modification time moved, remember it so the next check does not need the digest
+            final ProcessedFile file = known.get();
+            file.setSize(size);
+            file.setLastModified(lastModified);
+            processedFileRepository.save(file);
+            return skipped(new FileState(path, size, lastModified, digest, true));
+        }
+        if (known.isEmpty() && processedFileRepository.existsByDigest(digest)) {
+            log.debug("file: {} has the same content as a loaded file", path);
+            processedFileRepository.save(new ProcessedFile(path, size, lastModified, digest));
+            return skipped(new FileState(path, size, lastModified, digest, true));
+        }
+        return new FileState(path, size, lastModified, digest, false);
+    }
+
+    /**
+     * Records the file as loaded. Called while the last chunk of the file is being written, so that the record is
+     * committed together with it.
+     */
+    public void markProcessed(Resource resource, FileState state) throws IOException {
+        final String digest = state.digest() != null ? state.digest() : digest(resource);
+        final ProcessedFile file = processedFileRepository.findByPath(state.path())
+                .orElseGet(() -> new ProcessedFile(state.path(), state.size(), state.lastModified(), digest));
+        file.setSize(state.size());
+        file.setLastModified(state.lastModified());
+        file.setDigest(digest);
+        processedFileRepository.save(file);
+        count(PROCESSED_FILES_KEY);
+    }
+
+    /**
+     * Counts a file skipped for another reason than being unchanged, e.g. being from another bank, without recording
+     * it as loaded.
+     */
+    public void markSkipped(Resource resource) {
+        log.debug("file: {} skipped", resource);
+        count(SKIPPED_FILES_KEY);
+    }
+
+    private FileState skipped(FileState state) {
+        count(SKIPPED_FILES_KEY);
+        return state;
+    }
+
+    private static void count(String key) {
+        final StepContext context = StepSynchronizationManager.getContext();
+        if (context == null) {
+            return;
+        }
+        final ExecutionContext executionContext = context.getStepExecution().getExecutionContext();
+        synchronized (executionContext) {
+            executionContext.putInt(key, executionContext.getInt(key, 0) + 1);
+        }
+    }
+
+    /**
+     * @return SHA-256 of the content of the resource, in hex
+     */
+    static String digest(Resource resource) throws IOException {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = resource.getInputStream()) {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                messageDigest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    /**
+     * @param digest content digest, null if it was not needed to decide
+     * @param unchanged whether the file was loaded before as it is now
+     */
+    public record FileState(String path, long size, long lastModified, String digest, boolean unchanged) {}
+}
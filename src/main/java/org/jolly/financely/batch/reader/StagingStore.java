@@ -0,0 +1,297 @@
+package org.jolly.financely.batch.reader;
+
+import org.jolly.financely.model.RawTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * @author jolly
+ */
+@Component
+public class StagingStore {
+    private static final Logger log = LoggerFactory.getLogger(StagingStore.class);
+    private static final int MAGIC = 0x46535447;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 12;
+    private static final int END = -1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final String SUFFIX = ".stage";
+    private final Path directory;
+    private final boolean enabled;
+
+    public StagingStore(@Value("${batch.staging.dir:${java.io.tmpdir}/financely-staging}") Path directory,
+                        @Value("${batch.staging.retention:7d}") Duration retention,
+                        @Value("${batch.staging.enabled:false}") boolean enabled) throws IOException {
+        this.directory = directory;
+        this.enabled = enabled;
+        if (enabled) {
+            Files.createDirectories(directory);
+            deleteOlderThan(retention);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param jobExecutionId id of the job execution staging the statement, null outside a job
+     */
+    public StagedWriter create(Long jobExecutionId, Resource resource, int pageCount) throws IOException {
+        final String name = (jobExecutionId == null ? "local-" + UUID.randomUUID() : jobExecutionId.toString())
+                + "-" + digest(resource.getDescription()) + SUFFIX;
+        final Path file = directory.resolve(name);
+        log.debug("staging file: {} to: {}", resource, file);
+        return new StagedWriter(file, pageCount);
+    }
+
+    /**
+     * @param offset offset of the next record to read, as returned by {@link StagedReader#offset()}
+     * @param fileName name of the statement file the transactions are from
+     * @return a reader from the offset on, or null if the file is missing or incomplete
+     */
+    public StagedReader open(Path file, long offset, String fileName) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            log.warn("staging file: {} not found", file);
+            return null;
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            final ByteBuffer end = ByteBuffer.allocate(Integer.BYTES);
+            if (size < HEADER_LENGTH + Integer.BYTES || offset < HEADER_LENGTH || offset > size - Integer.BYTES
+                    || channel.read(header, 0) != HEADER_LENGTH || channel.read(end, size - Integer.BYTES) != Integer.BYTES
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION || end.getInt(0) != END) {
+                log.warn("staging file: {} is incomplete", file);
+                channel.close();
+                return null;
+            }
+            channel.position(offset);
+            return new StagedReader(file, channel, offset, header.getInt(8), fileName);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void deleteOlderThan(Duration retention) throws IOException {
+        final FileTime cutoff = FileTime.from(Instant.now().minus(retention));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    log.info("deleting expired staging file: {}", file);
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private static String digest(String description) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(description.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("failed to delete staging file: {}", file, e);
+        }
+    }
+
+    /**
+     * Appends transactions to a new staged file, which is only complete once finished.
+     */
+    public static final class StagedWriter implements Closeable {
+        private final Path file;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        private final DataOutputStream recordOut = new DataOutputStream(record);
+        private final int pageCount;
+        private boolean finished;
+
+        private StagedWriter(Path file, int pageCount) throws IOException {
+            this.file = file;
+            this.pageCount = pageCount;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pageCount);
+        }
+
+        public void append(RawTransaction transaction) throws IOException {
+            record.reset();
+            recordOut.writeInt(transaction.getPage());
+            recordOut.writeInt(transaction.getLine());
+            final LocalDate statementDate = transaction.getStatementDate();
+            recordOut.writeLong(statementDate == null ? NO_DATE : statementDate.toEpochDay());
+            recordOut.writeInt(transaction.getLineCount());
+            for (int i = 0; i < transaction.getLineCount(); i++) {
+                recordOut.writeUTF(transaction.getLine(i));
+            }
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+
+        /**
+         * Completes the file and opens it for reading from the first transaction.
+         */
+        public StagedReader finish(String fileName) throws IOException {
+            out.writeInt(END);
+            out.close();
+            finished = true;
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                channel.position(HEADER_LENGTH);
+                return new StagedReader(file, channel, HEADER_LENGTH, pageCount, fileName);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Closes the file, deleting it unless finished.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                try {
+                    out.close();
+                } finally {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads staged transactions in order, one ahead, so the offset and position of the next unread one are known.
+     */
+    public static final class StagedReader implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private final DataInputStream in;
+        private final int pageCount;
+        private final String fileName;
+        private long offset;
+        private long nextOffset;
+        private RawTransaction next;
+
+        private StagedReader(Path file, FileChannel channel, long offset, int pageCount, String fileName)
+                throws IOException {
+            this.file = file;
+            this.channel = channel;
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            this.pageCount = pageCount;
+            this.fileName = fileName;
+            this.nextOffset = offset;
+            advance();
+        }
+
+        /**
+         * @return the next transaction, or null after the last
+         */
+        public RawTransaction read() throws IOException {
+            final RawTransaction transaction = next;
+            if (transaction != null) {
+                advance();
+            }
+            return transaction;
+        }
+
+        /**
+         * @return the next transaction without reading it, or null after the last
+         */
+        public RawTransaction peek() {
+            return next;
+        }
+
+        /**
+         * @return offset of the next unread transaction, to resume from
+         */
+        public long offset() {
+            return offset;
+        }
+
+        public int pageCount() {
+            return pageCount;
+        }
+
+        public Path file() {
+            return file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        /**
+         * Closes and deletes the file.
+         */
+        public void delete() throws IOException {
+            try {
+                close();
+            } finally {
+                deleteQuietly(file);
+            }
+        }
+
+        private void advance() throws IOException {
+            offset = nextOffset;
+            final int length = in.readInt();
+            if (length == END) {
+                next = null;
+                return;
+            }
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            nextOffset = offset + Integer.BYTES + length;
+
+            final DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+            final int page = record.readInt();
+            final int line = record.readInt();
+            final long statementDate = record.readLong();
+            final int lineCount = record.readInt();
+            next = new RawTransaction(fileName, page, line);
+            for (int i = 0; i < lineCount; i++) {
+                next.addLine(record.readUTF());
+            }
+            next.setStatementDate(statementDate == NO_DATE ? null : LocalDate.ofEpochDay(statementDate));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.jolly.financely.batch.reader;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.constant.Bank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * @author jolly
+ */
+final class StatementPages implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(StatementPages.class);
+    private static final boolean SORT_BY_POSITION = true;
+    private final Resource resource;
+    private final String password;
+    private final String digest;
+    private final Bank bank;
+    private final PdfLoader pdfLoader;
+    private final BatchMetrics batchMetrics;
+    private final TextCache textCache;
+    private final TaskExecutor pageStripTaskExecutor;
+    private final int stripWorkers;
+    private boolean opened;
+    private int pageCount;
+    private String documentInfo;
+    private TextCache.Key textKey;
+    // text of the pages from the first one on, as cached or stripped so far, null without a cache or once a page is
+    // stripped after a gap
+    private List<String> texts;
+    // number of the texts that were cached
+    private int cachedPages;
+    private PdfLoader.LoadedPdf pdf;
+    private PDFTextStripper stripper;
+    // documents and strippers of the strip workers other than the calling thread, opened on first use
+    private final List<PdfLoader.LoadedPdf> workerPdfs = new ArrayList<>();
+    private final List<PDFTextStripper> workerStrippers = new ArrayList<>();
+
+    /**
+     * @param digest                content digest of the statement if already known, null to compute it if needed
+     * @param textCache             cache of stripped page text, null to always strip
+     * @param pageStripTaskExecutor executor of the strip workers, null to strip on the calling thread only
+     */
+    StatementPages(Resource resource, String password, String digest, Bank bank, PdfLoader pdfLoader,
+                   BatchMetrics batchMetrics, TextCache textCache, TaskExecutor pageStripTaskExecutor,
+                   int stripWorkers) {
+        this.resource = resource;
+        this.password = password;
+        this.digest = digest;
+        this.bank = bank;
+        this.pdfLoader = pdfLoader;
+        this.batchMetrics = batchMetrics;
+        this.textCache = textCache;
+        this.pageStripTaskExecutor = pageStripTaskExecutor;
+        this.stripWorkers = stripWorkers;
+    }
+
+    int pageCount() throws IOException {
+        open();
+        return pageCount;
+    }
+
+    /**
+     * @see BankDetector#documentInfo
+     */
+    String documentInfo() throws IOException {
+        open();
+        return documentInfo;
+    }
+
+    /**
+     * @return number of pages stripped at once by {@link #pages(int, int)}
+     */
+    int workers() {
+        return stripWorkers > 1 && pageStripTaskExecutor != null ? stripWorkers : 1;
+    }
+
+    String page(int page) throws IOException {
+        open();
+        if (page <= cachedPages) {
+            return texts.get(page - 1);
+        }
+        loadDocument();
+        final Timer.Sample sample = batchMetrics.start();
+        final String text = strip(stripper, pdf.document(), page);
+        batchMetrics.pageStripped(sample, bank);
+        keep(page, text);
+        return text;
+    }
+
+    /**
+     * Strips the pages that are not cached split into one contiguous range per worker, the first range on the calling
+     * thread.
+     *
+     * @return text of each page, in page order
+     */
+    String[] pages(int firstPage, int lastPage) throws IOException {
+        open();
+        final String[] pages = new String[lastPage - firstPage + 1];
+        final int firstStripped = Math.max(firstPage, cachedPages + 1);
+        for (int page = firstPage; page < firstStripped && page <= lastPage; page++) {
+            pages[page - firstPage] = texts.get(page - 1);
+        }
+        if (firstStripped <= lastPage) {
+            final String[] stripped = stripParallel(firstStripped, lastPage);
+            System.arraycopy(stripped, 0, pages, firstStripped - firstPage, stripped.length);
+        }
+        return pages;
+    }
+
+    /**
+     * Caches the text of the pages stripped from the first one on and closes the documents.
+     */
+    @Override
+    public void close() throws IOException {
+        if (textKey != null && texts != null && texts.size() > cachedPages) {
+            textCache.put(textKey, new TextCache.CachedText(pageCount, documentInfo, List.copyOf(texts)));
+            cachedPages = texts.size();
+        }
+
+        IOException failure = null;
+        for (PdfLoader.LoadedPdf workerPdf : workerPdfs) {
+            try {
+                workerPdf.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        workerPdfs.clear();
+        workerStrippers.clear();
+        if (pdf != null) {
+            try {
+                pdf.close();
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                pdf = null;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Takes the page count and the text of the pages stripped before from the cache, or loads the PDF if not cached.
+     */
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        if (textCache != null) {
+            textKey = textCache.key(resource, digest, SORT_BY_POSITION);
+            final TextCache.CachedText cached = textCache.get(textKey);
+            batchMetrics.textCacheRead(bank, cached != null);
+            if (cached != null) {
+                pageCount = cached.pageCount();
+                documentInfo = cached.documentInfo();
+                texts = new ArrayList<>(cached.pages());
+                cachedPages = texts.size();
+                log.debug("read text of pages: {} of {} of file: {} from cache", cachedPages, pageCount, resource);
+                opened = true;
+                return;
+            }
+            texts = new ArrayList<>();
+        }
+        loadDocument();
+        opened = true;
+    }
+
+    private void loadDocument() throws IOException {
+        if (pdf != null) {
+            return;
+        }
+        final Timer.Sample sample = batchMetrics.start();
+        pdf = pdfLoader.load(resource, password);
+        pageCount = pdf.document().getNumberOfPages();
+        stripper = newStripper();
+        if (documentInfo == null) {
+            documentInfo = BankDetector.documentInfo(pdf.document());
+        }
+        batchMetrics.pdfLoaded(sample, bank);
+    }
+
+    /**
+     * Keeps the text of a page to cache, as long as all the pages before it are kept.
+     */
+    private void keep(int page, String text) {
+        if (texts != null) {
+            if (page == texts.size() + 1) {
+                texts.add(text);
+            } else if (page > texts.size()) {
+                texts = null;
+            }
+        }
+    }
+
+    private String[] stripParallel(int firstPage, int lastPage) throws IOException {
+        loadDocument();
+        final int count = lastPage - firstPage + 1;
+        final int workers = Math.min(workers(), count);
+        final String[] texts = new String[count];
+        final long[] nanos = new long[count];
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(workers - 1);
+        for (int worker = 1; worker < workers; worker++) {
+            final int from = count * worker / workers;
+            final int to = count * (worker + 1) / workers;
+            final PDFTextStripper workerStripper = workerStripper(worker - 1);
+            final PDDocument workerDocument = workerPdfs.get(worker - 1).document();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    stripRange(workerStripper, workerDocument, firstPage, from, to, texts, nanos);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, pageStripTaskExecutor));
+        }
+        try {
+            stripRange(stripper, pdf.document(), firstPage, 0, count / workers, texts, nanos);
+        } catch (Throwable e) {
+            // the workers still use the documents, so they are waited for, and their failure is kept along
+            join(futures, e);
+            throw e;
+        }
+        join(futures, null);
+
+        for (int i = 0; i < count; i++) {
+            batchMetrics.pageStripped(bank, nanos[i]);
+            keep(firstPage + i, texts[i]);
+        }
+        return texts;
+    }
+
+    /**
+     * @param failure failure of the calling thread, which a failure of a worker is added to as suppressed, null if
+     *                none
+     */
+    private static void join(List<CompletableFuture<Void>> futures, Throwable failure) throws IOException {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+            if (failure != null) {
+                failure.addSuppressed(cause);
+                return;
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private PDFTextStripper workerStripper(int worker) throws IOException {
+        if (worker == workerPdfs.size()) {
+            workerPdfs.add(pdfLoader.load(resource, password));
+            workerStrippers.add(newStripper());
+        }
+        return workerStrippers.get(worker);
+    }
+
+    /**
+     * @param from index of the first page to strip, relative to the first page
+     * @param to index after the last page to strip
+     */
+    private static void stripRange(PDFTextStripper stripper, PDDocument document, int firstPage, int from, int to,
+                                   String[] texts, long[] nanos) throws IOException {
+        for (int i = from; i < to; i++) {
+            final long start = System.nanoTime();
+            texts[i] = strip(stripper, document, firstPage + i);
+            nanos[i] = System.nanoTime() - start;
+        }
+    }
+
+    private static String strip(PDFTextStripper stripper, PDDocument document, int page) throws IOException {
+        stripper.setStartPage(page);
+        stripper.setEndPage(page);
+        return stripper.getText(document);
+    }
+
+    private static PDFTextStripper newStripper() {
+        final PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSortByPosition(SORT_BY_POSITION);
+        return stripper;
+    }
+}
@@ -0,0 +1,219 @@
+package org.jolly.financely.batch.reader;
+
+import org.apache.pdfbox.util.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author jolly
+ */
+@Component
+public class TextCache {
+    private static final Logger log = LoggerFactory.getLogger(TextCache.class);
+    private static final int MAGIC = 0x46545854;
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".text.gz";
+    private static final String PDFBOX_VERSION = pdfboxVersion();
+    private final Path directory;
+    private final long maxSize;
+    private final boolean enabled;
+    private long size;
+
+    public TextCache(@Value("${batch.text-cache.dir:${java.io.tmpdir}/financely-text-cache}") Path directory,
+                     @Value("${batch.text-cache.max-size:256MB}") DataSize maxSize,
+                     @Value("${batch.text-cache.enabled:true}") boolean enabled) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize.toBytes();
+        this.enabled = enabled;
+        if (enabled) {
+            Files.createDirectories(directory);
+            evict();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param digest         content digest of the statement, null to compute it
+     * @param sortByPosition setting of the stripper the text is stripped with
+     */
+    public Key key(Resource resource, String digest, boolean sortByPosition) throws IOException {
+        return new Key(digest != null ? digest : ProcessedFileRegistry.digest(resource), PDFBOX_VERSION, sortByPosition);
+    }
+
+    /**
+     * @return the cached text, or null if there is none or it cannot be read
+     */
+    public CachedText get(Key key) {
+        final Path file = directory.resolve(key.fileName());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not a text cache file");
+            }
+            final int pageCount = in.readInt();
+            final String documentInfo = readString(in);
+            final int strippedPages = in.readInt();
+            final List<String> pages = new ArrayList<>(strippedPages);
+            for (int i = 0; i < strippedPages; i++) {
+                pages.add(readString(in));
+            }
+            // the modification time orders the files for eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            log.debug("read text of pages: {} of {} from: {}", strippedPages, pageCount, file);
+            return new CachedText(pageCount, documentInfo, pages);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("deleting unreadable text cache file: {}", file, e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the text, replacing any cached under the key. Failures are logged, since the text can be stripped again.
+     */
+    public void put(Key key, CachedText text) {
+        final Path file = directory.resolve(key.fileName());
+        final Path temporary = directory.resolve(key.fileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(text.pageCount());
+                writeString(out, text.documentInfo());
+                out.writeInt(text.pages().size());
+                for (String page : text.pages()) {
+                    writeString(out, page);
+                }
+            }
+            synchronized (this) {
+                // a file cached again under the key replaces the old one, whose size no longer counts
+                final long replaced = sizeOf(file);
+                final long written = Files.size(temporary);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("cached text of pages: {} of {} to: {}", text.pages().size(), text.pageCount(), file);
+                size += written - replaced;
+                if (size > maxSize) {
+                    evict();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("failed to cache text to: {}", file, e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the rest take at most the maximum size.
+     */
+    private synchronized void evict() throws IOException {
+        record Entry(Path file, long size, FileTime lastModified) {}
+        final List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    final Entry entry = new Entry(file, Files.size(file), Files.getLastModifiedTime(file));
+                    entries.add(entry);
+                    total += entry.size();
+                } catch (NoSuchFileException e) {
+                    // deleted meanwhile
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::lastModified));
+        for (Entry entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            log.debug("evicting text cache file: {}", entry.file());
+            deleteQuietly(entry.file());
+            total -= entry.size();
+        }
+        size = total;
+    }
+
+    /**
+     * @return size of the file, 0 if there is none
+     */
+    private static long sizeOf(Path file) throws IOException {
+        try {
+            return Files.size(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // page text can be longer than writeUTF allows
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String pdfboxVersion() {
+        final String version = Version.getVersion();
+        return version != null ? version : "unknown";
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("failed to delete text cache file: {}", file, e);
+        }
+    }
+
+    /**
+     * @param digest         content digest of the statement
+     * @param pdfboxVersion  version of PDFBox the text is stripped with
+     * @param sortByPosition setting of the stripper the text is stripped with
+     */
+    public record Key(String digest, String pdfboxVersion, boolean sortByPosition) {
+        String fileName() {
+            return digest + "-pdfbox-" + pdfboxVersion.replaceAll("[^A-Za-z0-9.]", "_")
+                    + (sortByPosition ? "-sorted" : "") + SUFFIX;
+        }
+    }
+
+    /**
+     * @param pageCount    number of pages of the statement
+     * @param documentInfo document information of the statement, see {@link BankDetector#documentInfo}
+     * @param pages        text of the pages from the first one on, as many as were stripped
+     */
+    public record CachedText(int pageCount, String documentInfo, List<String> pages) {}
+}
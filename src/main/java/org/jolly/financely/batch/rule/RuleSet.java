@@ -0,0 +1,262 @@
+package org.jolly.financely.batch.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author jolly
+ */
+public final class RuleSet {
+    private static final RuleSet EMPTY = new RuleSet(new String[0]);
+    private static final String GROUP_PREFIX = "rule";
+    private final String[] rules;
+    private final Pattern[] patterns;
+    private final List<LiteralRule> literals = new ArrayList<>();
+    // rules merged into one alternation, with the group number of each alternative
+    private final Pattern merged;
+    private final int[] mergedRules;
+    private final int[] mergedGroups;
+    // rules that cannot be merged, e.g. due to back references or named groups
+    private final int[] separateRules;
+
+    private RuleSet(String[] rules) {
+        this.rules = rules;
+        this.patterns = new Pattern[rules.length];
+        final List<Integer> toMerge = new ArrayList<>();
+        final List<Integer> separate = new ArrayList<>();
+        final StringBuilder alternation = new StringBuilder();
+
+        for (int i = 0; i < rules.length; i++) {
+            patterns[i] = Pattern.compile(rules[i]);
+            final LiteralRule literal = LiteralRule.parse(i, rules[i]);
+            if (literal != null) {
+                literals.add(literal);
+            } else if (isMergeable(rules[i])) {
+                if (!toMerge.isEmpty()) {
+                    alternation.append('|');
+                }
+                alternation.append("(?<").append(GROUP_PREFIX).append(i).append('>').append(rules[i]).append(')');
+                toMerge.add(i);
+            } else {
+                separate.add(i);
+            }
+        }
+
+        this.mergedRules = toMerge.stream().mapToInt(Integer::intValue).toArray();
+        this.separateRules = separate.stream().mapToInt(Integer::intValue).toArray();
+        if (toMerge.isEmpty()) {
+            this.merged = null;
+            this.mergedGroups = new int[0];
+        } else {
+            this.merged = Pattern.compile(alternation.toString());
+            final Map<String, Integer> groups = merged.namedGroups();
+            this.mergedGroups = toMerge.stream()
+                    .mapToInt(i -> groups.get(GROUP_PREFIX + i))
+                    .toArray();
+        }
+    }
+
+    public static RuleSet compile(String... rules) {
+        if (rules == null || rules.length == 0) {
+            return EMPTY;
+        }
+        return new RuleSet(rules.clone());
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * @return the source regex of the rule at the given index
+     */
+    public String rule(int index) {
+        return rules[index];
+    }
+
+    public boolean matches(CharSequence input) {
+        return firstMatch(input) >= 0;
+    }
+
+    /**
+     * @return index of the first rule, in declaration order, that matches the whole input, or -1 if none does
+     */
+    public int firstMatch(CharSequence input) {
+        if (rules.length == 0) {
+            return -1;
+        }
+        // '.' does not match line terminators, so the literal shortcuts only hold for single line input
+        if (hasLineTerminator(input)) {
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matcher(input).matches()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int first = -1;
+        for (LiteralRule literal : literals) {
+            if (literal.test(input)) {
+                first = literal.index();
+                break;
+            }
+        }
+        if (merged != null && (first < 0 || mergedRules[0] < first)) {
+            final Matcher matcher = merged.matcher(input);
+            if (matcher.matches()) {
+                for (int i = 0; i < mergedGroups.length; i++) {
+                    if (matcher.start(mergedGroups[i]) >= 0) {
+                        first = first < 0 ? mergedRules[i] : Math.min(first, mergedRules[i]);
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i : separateRules) {
+            if (first >= 0 && i > first) {
+                break;
+            }
+            if (patterns[i].matcher(input).matches()) {
+                first = i;
+                break;
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSet " + Arrays.toString(rules);
+    }
+
+    private static boolean isMergeable(String regex) {
+        for (int i = 0; i < regex.length() - 1; i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                final char next = regex.charAt(i + 1);
+                // numbered or named back reference, or quoting that may run into the next alternative
+                if (Character.isDigit(next) || next == 'k' || next == 'Q') {
+                    return false;
+                }
+                i++;
+            } else if (c == '(' && regex.startsWith("?<", i + 1) && i + 3 < regex.length()
+                    && Character.isLetter(regex.charAt(i + 3))) {
+                // named group, which could clash with another rule
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasLineTerminator(CharSequence input) {
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record LiteralRule(int index, Kind kind, String literal) {
+        private enum Kind {
+            EQUALS, STARTS_WITH, ENDS_WITH, CONTAINS
+        }
+
+        private static final String META_CHARS = "[](){}.*+?^$|";
+
+        /**
+         * @return the rule as a literal test, or null when the regex is more than a literal with optional
+         * leading and trailing <code>.*</code>
+         */
+        static LiteralRule parse(int index, String regex) {
+            int i = regex.startsWith("^") ? 1 : 0;
+            final boolean leading = regex.startsWith(".*", i);
+            if (leading) {
+                i += 2;
+            }
+
+            final StringBuilder literal = new StringBuilder();
+            boolean trailing = false;
+            while (i < regex.length()) {
+                final char c = regex.charAt(i);
+                if (c == '\\') {
+                    if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                        return null;
+                    }
+                    literal.append(regex.charAt(i + 1));
+                    i += 2;
+                } else if (c == '.' && i + 2 == regex.length() && regex.charAt(i + 1) == '*') {
+                    trailing = true;
+                    break;
+                } else if (c == '$' && i + 1 == regex.length()) {
+                    break;
+                } else if (META_CHARS.indexOf(c) >= 0) {
+                    return null;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+
+            final Kind kind;
+            if (leading && trailing) {
+                kind = Kind.CONTAINS;
+            } else if (leading) {
+                kind = Kind.ENDS_WITH;
+            } else if (trailing) {
+                kind = Kind.STARTS_WITH;
+            } else {
+                kind = Kind.EQUALS;
+            }
+            return new LiteralRule(index, kind, literal.toString());
+        }
+
+        boolean test(CharSequence input) {
+            if (input instanceof String s) {
+                return switch (kind) {
+                    case EQUALS -> s.equals(literal);
+                    case STARTS_WITH -> s.startsWith(literal);
+                    case ENDS_WITH -> s.endsWith(literal);
+                    case CONTAINS -> s.contains(literal);
+                };
+            }
+            return switch (kind) {
+                case EQUALS -> input.length() == literal.length() && regionMatches(input, 0);
+                case STARTS_WITH -> regionMatches(input, 0);
+                case ENDS_WITH -> regionMatches(input, input.length() - literal.length());
+                case CONTAINS -> contains(input);
+            };
+        }
+
+        private boolean regionMatches(CharSequence input, int offset) {
+            if (offset < 0 || offset + literal.length() > input.length()) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (input.charAt(offset + i) != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(CharSequence input) {
+            for (int offset = 0; offset + literal.length() <= input.length(); offset++) {
+                if (regionMatches(input, offset)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,25 +1,57 @@
 package org.jolly.financely.batch.writer;
 
+import io.micrometer.core.instrument.Timer;
+import org.jolly.financely.batch.metrics.BatchMetrics;
 import org.jolly.financely.model.Transaction;
 import org.jolly.financely.repository.TransactionRepository;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 /**
+ * Writes transactions either through JPA or, when <code>batch.writer.batch-insert</code> is on, as one JDBC batch
+ * per chunk with {@link TransactionJdbcWriter}. Either way transactions already stored, matched by fingerprint, are
+ * not written again.
+ *
  * @author jolly
  */
 @Component
 public class BankAccountDBWriter implements ItemWriter<Transaction> {
     private final TransactionRepository transactionRepository;
+    private final TransactionJdbcWriter transactionJdbcWriter;
+    private final boolean batchInsert;
+    private final BatchMetrics batchMetrics;
 
-    public BankAccountDBWriter(TransactionRepository transactionRepository) {
+    public BankAccountDBWriter(TransactionRepository transactionRepository,
+                               TransactionJdbcWriter transactionJdbcWriter,
+                               @Value("${batch.writer.batch-insert:true}") boolean batchInsert,
+                               BatchMetrics batchMetrics) {
         this.transactionRepository = transactionRepository;
+        this.transactionJdbcWriter = transactionJdbcWriter;
+        this.batchInsert = batchInsert;
+        this.batchMetrics = batchMetrics;
     }
 
     @Override
     public void write(@NonNull Chunk<? extends Transaction> chunk) throws Exception {
-        transactionRepository.saveAll(chunk.getItems());
+        if (chunk.isEmpty()) {
+            return;
+        }
+        final Timer.Sample sample = batchMetrics.start();
+        if (batchInsert) {
+            transactionJdbcWriter.write(chunk);
+        } else {
+            final Set<String> existing = transactionRepository.findExistingFingerprints(chunk.getItems().stream()
+                    .map(Transaction::getFingerprint)
+                    .toList());
+            transactionRepository.saveAll(chunk.getItems().stream()
+                    .filter(t -> !existing.contains(t.getFingerprint()))
+                    .toList());
+        }
+        batchMetrics.chunkWritten(sample, chunk.getItems().get(0).getBank(), chunk.size());
     }
 }
@@ -1,29 +1,51 @@
 package org.jolly.financely.batch.writer;
 
+import io.micrometer.core.instrument.Timer;
+import org.jolly.financely.batch.metrics.BatchMetrics;
 import org.jolly.financely.model.Expense;
 import org.jolly.financely.repository.ExpenseRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 
 /**
+ * Writes expenses either through JPA or, when <code>batch.writer.batch-insert</code> is on, as one JDBC batch per
+ * chunk with {@link ExpenseJdbcWriter}.
+ *
  * @author jolly
  */
 @Component
 public class ExpenseDBWriter implements ItemWriter<Expense> {
     private static final Logger log = LoggerFactory.getLogger(ExpenseDBWriter.class);
     private final ExpenseRepository expenseRepository;
+    private final ExpenseJdbcWriter expenseJdbcWriter;
+    private final boolean batchInsert;
+    private final BatchMetrics batchMetrics;
 
-    public ExpenseDBWriter(ExpenseRepository expenseRepository) {
+    public ExpenseDBWriter(ExpenseRepository expenseRepository,
+                           ExpenseJdbcWriter expenseJdbcWriter,
+                           @Value("${batch.writer.batch-insert:true}") boolean batchInsert,
+                           BatchMetrics batchMetrics) {
         this.expenseRepository = expenseRepository;
+        this.expenseJdbcWriter = expenseJdbcWriter;
+        this.batchInsert = batchInsert;
+        this.batchMetrics = batchMetrics;
     }
 
     @Override
     public void write(@NonNull Chunk<? extends Expense> chunk) throws Exception {
-        log.debug("writing expense data total: {} rows", chunk.getItems().size());
-        expenseRepository.saveAll(chunk.getItems());
+        final Timer.Sample sample = batchMetrics.start();
+        if (batchInsert) {
+            expenseJdbcWriter.write(chunk);
+        } else {
+            log.debug("writing expense data total: {} rows", chunk.getItems().size());
+            expenseRepository.saveAll(chunk.getItems());
+        }
+        // expenses are not tied to a bank
+        batchMetrics.chunkWritten(sample, null, chunk.size());
     }
 }
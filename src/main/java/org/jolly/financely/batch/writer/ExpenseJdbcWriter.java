@@ -0,0 +1,84 @@
+package org.jolly.financely.batch.writer;
+
+import org.jolly.financely.model.Audit;
+import org.jolly.financely.model.AuditListener;
+import org.jolly.financely.model.Expense;
+import org.jolly.financely.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts a chunk of expenses as a single JDBC batch, see {@link TransactionJdbcWriter}.
+ *
+ * @author jolly
+ */
+@Component
+public class ExpenseJdbcWriter implements ItemWriter<Expense> {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseJdbcWriter.class);
+    private static final String INSERT_SQL = """
+            insert into expense (id, created_on, created_by, updated_on, updated_by, date,
+                amount, currency, description, category, year, month)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequence sequence;
+    private final AuditListener auditListener = new AuditListener();
+
+    public ExpenseJdbcWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequence = new PooledSequence(jdbcTemplate, Expense.ID_SEQUENCE, Expense.ID_ALLOCATION_SIZE);
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends Expense> chunk) throws Exception {
+        final List<? extends Expense> items = chunk.getItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        final long[] ids = sequence.nextIds(items.size());
+        for (Expense item : items) {
+            auditListener.setCreatedOn(item);
+        }
+
+        log.debug("batch inserting expense total: {} rows", items.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(@NonNull PreparedStatement ps, int i) throws SQLException {
+                ExpenseJdbcWriter.setValues(ps, ids[i], items.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+
+    private static void setValues(PreparedStatement ps, long id, Expense item) throws SQLException {
+        final Audit audit = item.getAudit();
+        ps.setLong(1, id);
+        ps.setObject(2, audit.getCreatedOn());
+        ps.setString(3, audit.getCreatedBy());
+        ps.setObject(4, audit.getUpdatedOn(), Types.TIMESTAMP);
+        ps.setString(5, audit.getUpdatedBy());
+        ps.setObject(6, item.getDate(), Types.TIMESTAMP);
+        final Money price = item.getPrice();
+        ps.setBigDecimal(7, price != null ? price.getAmount() : null);
+        ps.setString(8, price != null && price.getCurrency() != null ? price.getCurrency().getCurrencyCode() : null);
+        ps.setString(9, item.getDescription());
+        ps.setString(10, item.getCategory());
+        ps.setObject(11, item.getYear() != null ? (short) item.getYear().getValue() : null, Types.SMALLINT);
+        // months are stored by ordinal, as mapped by @Enumerated on the entity
+        ps.setObject(12, item.getMonth() != null ? (short) item.getMonth().ordinal() : null, Types.SMALLINT);
+    }
+}
@@ -0,0 +1,45 @@
+package org.jolly.financely.batch.writer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * @author jolly
+ */
+class PooledSequence {
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private final int incrementSize;
+    // next id to hand out and the last id of the current block
+    private long next = 1;
+    private long hi = 0;
+
+    PooledSequence(JdbcTemplate jdbcTemplate, String sequenceName, int incrementSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = "select nextval('" + sequenceName + "')";
+        this.incrementSize = incrementSize;
+    }
+
+    synchronized long[] nextIds(int count) {
+        final long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (next > hi) {
+                nextBlock();
+            }
+            ids[i] = next++;
+        }
+        return ids;
+    }
+
+    // each value fetched is the upper bound of a block, as with Hibernate's pooled optimizer, so ids allocated here
+    // and by the JPA repositories do not clash
+    private void nextBlock() {
+        long value;
+        do {
+            value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+            // the initial value of a fresh sequence is not the end of a whole block, Hibernate treats it specially
+            // so it is skipped here rather than risk overlapping ids
+        } while (value < incrementSize);
+        hi = value;
+        next = value - incrementSize + 1;
+    }
+}
@@ -0,0 +1,116 @@
+package org.jolly.financely.batch.writer;
+
+import org.jolly.financely.model.Audit;
+import org.jolly.financely.model.AuditListener;
+import org.jolly.financely.model.Instalment;
+import org.jolly.financely.model.Money;
+import org.jolly.financely.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * @author jolly
+ */
+@Component
+public class TransactionJdbcWriter implements ItemWriter<Transaction> {
+    private static final Logger log = LoggerFactory.getLogger(TransactionJdbcWriter.class);
+    private static final String INSERT_SQL = """
+            insert into transaction (id, created_on, created_by, updated_on, updated_by, date,
+                credit_amount, credit_currency, debit_amount, debit_currency, description, file,
+                is_salary, is_instalment, bank, instalment_number, instalment_total, fingerprint)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (fingerprint) do nothing""";
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequence sequence;
+    private final AuditListener auditListener = new AuditListener();
+
+    public TransactionJdbcWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequence = new PooledSequence(jdbcTemplate, Transaction.ID_SEQUENCE, Transaction.ID_ALLOCATION_SIZE);
+    }
+
+    @Override
+    public void write(@NonNull Chunk<? extends Transaction> chunk) throws Exception {
+        final List<? extends Transaction> items = chunk.getItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        final long[] ids = sequence.nextIds(items.size());
+        for (Transaction item : items) {
+            auditListener.setCreatedOn(item);
+        }
+
+        log.debug("batch inserting transactions total: {} rows", items.size());
+        final int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(@NonNull PreparedStatement ps, int i) throws SQLException {
+                TransactionJdbcWriter.setValues(ps, ids[i], items.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+        final int inserted = inserted(counts);
+        if (inserted >= 0 && inserted < items.size()) {
+            log.debug("skipped already loaded transactions total: {} rows", items.size() - inserted);
+        }
+    }
+
+    /**
+     * @return number of rows inserted, or -1 if the driver did not report it, e.g. for rewritten batches
+     */
+    private static int inserted(int[] counts) {
+        int inserted = 0;
+        for (int count : counts) {
+            if (count < 0) {
+                return -1;
+            }
+            inserted += count;
+        }
+        return inserted;
+    }
+
+    private static void setValues(PreparedStatement ps, long id, Transaction item) throws SQLException {
+        final Audit audit = item.getAudit();
+        ps.setLong(1, id);
+        ps.setObject(2, audit.getCreatedOn());
+        ps.setString(3, audit.getCreatedBy());
+        ps.setObject(4, audit.getUpdatedOn(), Types.TIMESTAMP);
+        ps.setString(5, audit.getUpdatedBy());
+        ps.setObject(6, item.getDate());
+        setMoney(ps, 7, item.getCredit());
+        setMoney(ps, 9, item.getDebit());
+        ps.setString(11, item.getDescription());
+        ps.setString(12, item.getFile());
+        ps.setBoolean(13, item.isSalary());
+        ps.setBoolean(14, item.isInstalment());
+        ps.setString(15, item.getBank() != null ? item.getBank().name() : null);
+        final Instalment instalment = item.getInstalment();
+        ps.setObject(16, instalment != null ? instalment.getNumber() : null, Types.INTEGER);
+        ps.setObject(17, instalment != null ? instalment.getTotal() : null, Types.INTEGER);
+        ps.setString(18, item.getFingerprint());
+    }
+
+    private static void setMoney(PreparedStatement ps, int index, Money money) throws SQLException {
+        if (money == null) {
+            ps.setNull(index, Types.NUMERIC);
+            ps.setNull(index + 1, Types.VARCHAR);
+        } else {
+            ps.setBigDecimal(index, money.getAmount());
+            ps.setString(index + 1, money.getCurrency() != null ? money.getCurrency().getCurrencyCode() : null);
+        }
+    }
+}
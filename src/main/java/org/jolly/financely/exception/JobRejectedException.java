@@ -0,0 +1,16 @@
+package org.jolly.financely.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a job cannot be launched because as many jobs as allowed are already running or waiting.
+ *
+ * @author jolly
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class JobRejectedException extends RuntimeException {
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
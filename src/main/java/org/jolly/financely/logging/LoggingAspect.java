@@ -1,5 +1,6 @@
 package org.jolly.financely.logging;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author jolly
  */
@@ -16,6 +19,11 @@ import org.springframework.util.StopWatch;
 @Component
 public class LoggingAspect {
     private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
+    private final MeterRegistry meterRegistry;
+
+    public LoggingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @Around("@annotation(org.jolly.financely.annotation.LogExecutionTime)")
     public Object logExecutionTime(ProceedingJoinPoint pjp) throws Throwable {
@@ -34,6 +42,8 @@ public class LoggingAspect {
 
         //Log method execution time
         log.info("execution time of {}.{} :: {} ms", className, methodName, stopWatch.getTotalTimeMillis());
+        meterRegistry.timer("financely.execution", "class", className, "method", methodName)
+                .record(stopWatch.getTotalTimeNanos(), TimeUnit.NANOSECONDS);
 
         return result;
     }
@@ -14,9 +14,14 @@ import java.util.Objects;
  */
 @Entity
 @EntityListeners(AuditListener.class)
+@Table(indexes = @Index(name = "ix_expense_year_month_category", columnList = "year, month, category"))
 public class Expense implements Comparable<Expense>, Auditable {
+    // ids are also handed out in blocks by the batch insert writers, so they must agree on the allocation size
+    public static final String ID_SEQUENCE = "expense_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     @Embedded
     private Audit audit;
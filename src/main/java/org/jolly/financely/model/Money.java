@@ -1,5 +1,7 @@
 package org.jolly.financely.model;
 
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.Transient;
@@ -18,12 +20,29 @@ import java.util.Objects;
  * @author jolly
  */
 @Embeddable
+@Access(AccessType.FIELD)
 public final class Money implements Comparable<Money>, Serializable {
     @Serial
     private static final long serialVersionUID = -3481031843124881066L;
+    private static final int MAX_COMPACT_SCALE = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_COMPACT_SCALE + 1];
 
-    @Column(name = "amount")
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // the amount when it is not compact, otherwise a lazily created copy of units and scale; mapped through
+    // getAmount() so that it is always populated when persisted
+    @Transient
     private BigDecimal amount;
+    // amount is units * 10^-scale when compact; an amount that fits is always compact, so equal amounts
+    // have equal representations
+    private transient boolean compact;
+    private transient long units;
+    private transient int scale;
     @Column(name = "currency", length = 10)
     private final Currency currency;
     @Transient
@@ -32,10 +51,17 @@ public final class Money implements Comparable<Money>, Serializable {
     private static RoundingMode DEFAULT_ROUNDING;
 
     protected Money(BigDecimal amount, Currency currency, RoundingMode rounding, boolean autoRound) {
-        this.amount = amount;
         this.currency = currency;
         this.rounding = rounding;
-        validateState(autoRound);
+        setAmount(validateState(amount, autoRound));
+    }
+
+    private Money(long units, int scale, Currency currency, RoundingMode rounding) {
+        this.compact = true;
+        this.units = units;
+        this.scale = scale;
+        this.currency = currency;
+        this.rounding = rounding;
     }
 
     protected Money(BigDecimal amount, Currency currency, RoundingMode rounding) {
@@ -91,10 +117,55 @@ public final class Money implements Comparable<Money>, Serializable {
         return new Money(amount);
     }
 
+    /**
+     * @param minorUnits amount in the smallest unit of the currency, e.g. cents
+     */
+    public static Money ofMinor(long minorUnits, @NonNull Currency currency) {
+        final int digits = currency.getDefaultFractionDigits();
+        if (digits >= 0 && digits <= MAX_COMPACT_SCALE) {
+            return new Money(minorUnits, digits, currency, DEFAULT_ROUNDING);
+        }
+        return new Money(BigDecimal.valueOf(minorUnits, Math.max(digits, 0)), currency, DEFAULT_ROUNDING, true);
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return ofMinor(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "amount")
     public BigDecimal getAmount() {
+        BigDecimal amount = this.amount;
+        if (amount == null) {
+            amount = BigDecimal.valueOf(units, scale);
+            this.amount = amount;
+        }
         return amount;
     }
 
+    private void setAmount(BigDecimal amount) {
+        if (amount.scale() >= 0 && amount.scale() <= MAX_COMPACT_SCALE && amount.unscaledValue().bitLength() < Long.SIZE) {
+            this.compact = true;
+            this.units = amount.unscaledValue().longValue();
+            this.scale = amount.scale();
+        } else {
+            this.compact = false;
+        }
+        this.amount = amount;
+    }
+
+    /**
+     * @return the amount in the smallest unit of the currency, e.g. cents
+     * @throws ArithmeticException if that does not fit in a long
+     */
+    public long toMinorUnits() {
+        final int digits = getNumDecimalsForCurrency();
+        if (compact && scale <= digits && digits <= MAX_COMPACT_SCALE) {
+            return Math.multiplyExact(units, POWERS_OF_TEN[digits - scale]);
+        }
+        return getAmount().movePointRight(digits).longValueExact();
+    }
+
     public Currency getCurrency() {
         return currency;
     }
@@ -113,44 +184,99 @@ public final class Money implements Comparable<Money>, Serializable {
 
     public Money plus(Money that) {
         checkCurrenciesMatch(that);
-        return new Money(amount.add(that.amount), currency, rounding);
+        if (compact && that.compact) {
+            final int s = Math.max(scale, that.scale);
+            try {
+                return new Money(Math.addExact(rescale(units, scale, s), rescale(that.units, that.scale, s)),
+                        s, currency, rounding);
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+        return new Money(getAmount().add(that.getAmount()), currency, rounding);
     }
 
     public Money minus(Money that) {
         checkCurrenciesMatch(that);
-        return new Money(amount.subtract(that.amount), currency, rounding);
+        if (compact && that.compact) {
+            final int s = Math.max(scale, that.scale);
+            try {
+                return new Money(Math.subtractExact(rescale(units, scale, s), rescale(that.units, that.scale, s)),
+                        s, currency, rounding);
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+        return new Money(getAmount().subtract(that.getAmount()), currency, rounding);
     }
 
+    /**
+     * Adds up amounts in the default currency without creating intermediate results, as long as the total fits in
+     * a long.
+     */
     public static Money sum(Collection<Money> monies) {
-        Money sum = new Money(BigDecimal.ZERO);
+        long total = 0;
+        int totalScale = 0;
+        BigDecimal bigTotal = null;
         for (Money m : monies) {
-            sum = sum.plus(m);
+            checkCurrenciesMatch(DEFAULT_CURRENCY, m);
+            if (bigTotal == null && m.compact) {
+                try {
+                    if (m.scale > totalScale) {
+                        total = rescale(total, totalScale, m.scale);
+                        totalScale = m.scale;
+                    }
+                    total = Math.addExact(total, rescale(m.units, m.scale, totalScale));
+                    continue;
+                } catch (ArithmeticException ignored) {
+                    // overflow, continue with BigDecimal
+                }
+            }
+            if (bigTotal == null) {
+                bigTotal = BigDecimal.valueOf(total, totalScale);
+            }
+            bigTotal = bigTotal.add(m.getAmount());
+        }
+
+        if (bigTotal == null) {
+            return new Money(total, totalScale, DEFAULT_CURRENCY, DEFAULT_ROUNDING);
         }
-        return sum;
+        return new Money(bigTotal);
     }
 
     public Money times(int factor) {
+        if (compact) {
+            try {
+                return new Money(Math.multiplyExact(units, factor), scale, currency, rounding);
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
         BigDecimal aFactor = new BigDecimal(factor);
-        BigDecimal newAmount = amount.multiply(aFactor);
+        BigDecimal newAmount = getAmount().multiply(aFactor);
         return new Money(newAmount, currency, rounding);
     }
 
     public Money times(double factor) {
         BigDecimal aFactor = asBigDecimal(factor);
-        BigDecimal newAmount = amount.multiply(aFactor)
+        BigDecimal newAmount = getAmount().multiply(aFactor)
                 .setScale(getNumDecimalsForCurrency(), rounding);
         return new Money(newAmount, currency, rounding);
     }
 
     public Money div(int divisor) {
+        // Long.MIN_VALUE / -1 is the one quotient that overflows
+        if (compact && divisor != 0 && !(units == Long.MIN_VALUE && divisor == -1)) {
+            return new Money(divide(units, divisor, rounding), scale, currency, rounding);
+        }
         BigDecimal aDivisor = new BigDecimal(divisor);
-        BigDecimal newAmount = amount.divide(aDivisor, rounding);
+        BigDecimal newAmount = getAmount().divide(aDivisor, rounding);
         return new Money(newAmount, currency, rounding);
     }
 
     public Money div(double divisor) {
         BigDecimal aDivisor = asBigDecimal(divisor);
-        BigDecimal newAmount = amount.divide(aDivisor, rounding);
+        BigDecimal newAmount = getAmount().divide(aDivisor, rounding);
         return new Money(newAmount, currency, rounding);
     }
 
@@ -179,15 +305,14 @@ public final class Money implements Comparable<Money>, Serializable {
         return compareAmount(that) <= 0;
     }
 
-    private Object[] getSigFields() {
-        return new Object[]{amount, currency, rounding};
-    }
-
     @Override
     public String toString() {
-        return amount.toPlainString() + " " + currency.getSymbol();
+        return getAmount().toPlainString() + " " + currency.getSymbol();
     }
 
+    /**
+     * Like {@link BigDecimal#equals}, amounts of a different scale are not equal: 0 is not the same as 0.00.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -196,17 +321,22 @@ public final class Money implements Comparable<Money>, Serializable {
         if (!(o instanceof Money m)) {
             return false;
         }
-        for (int i = 0; i < this.getSigFields().length; i++) {
-            if (!Objects.equals(this.getSigFields()[i], m.getSigFields()[i])) {
-                return false;
-            }
+        if (compact != m.compact) {
+            return false;
+        }
+        if (compact ? units != m.units || scale != m.scale : !amount.equals(m.amount)) {
+            return false;
         }
-        return true;
+        return Objects.equals(currency, m.currency) &&
+                Objects.equals(rounding, m.rounding);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.getSigFields());
+        int result = compact ? 31 * Long.hashCode(units) + scale : amount.hashCode();
+        result = 31 * result + Objects.hashCode(currency);
+        result = 31 * result + Objects.hashCode(rounding);
+        return result;
     }
 
     @Override
@@ -215,7 +345,7 @@ public final class Money implements Comparable<Money>, Serializable {
         if (this == o) {
             return equal;
         }
-        int comparison = this.amount.compareTo(o.amount);
+        int comparison = compareAmount(o);
         if (comparison != equal) {
             return comparison;
         }
@@ -234,16 +364,17 @@ public final class Money implements Comparable<Money>, Serializable {
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         // defensive copy for mutable field since BigDecimal is non-final
-        amount = new BigDecimal(amount.toPlainString());
-        validateState(false);
+        setAmount(validateState(amount != null ? new BigDecimal(amount.toPlainString()) : null, false));
     }
 
     @Serial
     private void writeObject(ObjectOutputStream out) throws IOException {
+        // only the BigDecimal form is serialized, so make sure it exists
+        getAmount();
         out.defaultWriteObject();
     }
 
-    private void validateState(boolean autoRound) {
+    private BigDecimal validateState(BigDecimal amount, boolean autoRound) {
         if (amount == null) {
             throw new IllegalArgumentException("amount cannot be null");
         }
@@ -257,8 +388,9 @@ public final class Money implements Comparable<Money>, Serializable {
                 throw new IllegalArgumentException("number of decimals is " + amount.scale() + ", but currency only takes " +
                         getNumDecimalsForCurrency() + " decimals.");
             }
-            amount = amount.setScale(getNumDecimalsForCurrency(), rounding);
+            return amount.setScale(getNumDecimalsForCurrency(), rounding);
         }
+        return amount;
     }
 
     private int getNumDecimalsForCurrency() {
@@ -266,8 +398,12 @@ public final class Money implements Comparable<Money>, Serializable {
     }
 
     private void checkCurrenciesMatch(Money that) {
-        if (!this.currency.equals(that.getCurrency())) {
-            throw new MismatchCurrencyException(that.getCurrency() + "doesn't match the expected currency: " + this.currency);
+        checkCurrenciesMatch(this.currency, that);
+    }
+
+    private static void checkCurrenciesMatch(Currency currency, Money that) {
+        if (!currency.equals(that.getCurrency())) {
+            throw new MismatchCurrencyException(that.getCurrency() + "doesn't match the expected currency: " + currency);
         }
     }
 
@@ -275,7 +411,56 @@ public final class Money implements Comparable<Money>, Serializable {
      * Ignores scale: 0 same as 0.00.
      */
     private int compareAmount(Money that) {
-        return this.amount.compareTo(that.amount);
+        if (compact && that.compact) {
+            if (scale == that.scale) {
+                return Long.compare(units, that.units);
+            }
+            final int s = Math.max(scale, that.scale);
+            try {
+                return Long.compare(rescale(units, scale, s), rescale(that.units, that.scale, s));
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+        return getAmount().compareTo(that.getAmount());
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    private static long rescale(long units, int scale, int newScale) {
+        return scale == newScale ? units : Math.multiplyExact(units, POWERS_OF_TEN[newScale - scale]);
+    }
+
+    /**
+     * Integer division rounded the same way as {@link BigDecimal#divide(BigDecimal, RoundingMode)}.
+     */
+    private static long divide(long dividend, long divisor, RoundingMode rounding) {
+        final long quotient = dividend / divisor;
+        final long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // sign of the exact quotient, rounding up moves one step away from zero in that direction
+        final int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        final boolean up = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                final long absRemainder = Math.abs(remainder);
+                // compare against the distance to the next step rather than doubling, which could overflow
+                final int half = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                if (half != 0) {
+                    yield half > 0;
+                }
+                yield rounding == RoundingMode.HALF_UP || (rounding == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return up ? quotient + signum : quotient;
     }
 
     private BigDecimal asBigDecimal(double aDouble) {
@@ -0,0 +1,81 @@
+package org.jolly.financely.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A statement file that has been loaded completely, identified by its location and the size, modification time and
+ * digest of its content at that point.
+ *
+ * @author jolly
+ */
+@Entity
+@EntityListeners(AuditListener.class)
+@Table(indexes = @Index(name = "ix_processed_file_digest", columnList = "digest"))
+public class ProcessedFile implements Auditable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+    @Embedded
+    private Audit audit;
+    @Column(length = 1024, unique = true, nullable = false)
+    private String path;
+    private long size;
+    private long lastModified;
+    @Column(length = 64, nullable = false)
+    private String digest;
+
+    protected ProcessedFile() {}
+
+    public ProcessedFile(String path, long size, long lastModified, String digest) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.digest = digest;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Audit getAudit() {
+        return audit;
+    }
+
+    @Override
+    public void setAudit(Audit audit) {
+        this.audit = audit;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+}
@@ -1,41 +1,158 @@
 package org.jolly.financely.model;
 
-import java.util.LinkedList;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * @author jolly
  */
 public class RawTransaction {
-    private final List<String> lines;
+    private static final String SEPARATOR = ", ";
+    private static final int MAX_MERGED_LENGTH = 252;
+    private final StringBuilder text;
+    private int[] lineStarts = new int[2];
+    private int lineCount;
+    private String merged;
     private final String file;
+    private String fileDigest;
+    // position of the first line in the source document
+    private final int page;
+    private final int line;
+    private LocalDate statementDate;
 
     public RawTransaction(String file) {
-        this(new LinkedList<>(), file);
+        this(file, 0, 0);
     }
 
-    public RawTransaction(List<String> lines, String file) {
-        this.lines = lines;
+    public RawTransaction(String file, int page, int line) {
+        this.text = new StringBuilder(64);
         this.file = file;
+        this.page = page;
+        this.line = line;
+    }
+
+    public RawTransaction(List<String> lines, String file) {
+        this(lines, file, 0, 0);
+    }
+
+    public RawTransaction(List<String> lines, String file, int page, int line) {
+        this(file, page, line);
+        lines.forEach(this::addLine);
+    }
+
+    public void addLine(CharSequence line) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        if (lineCount > 0) {
+            text.append(SEPARATOR);
+        }
+        lineStarts[lineCount++] = text.length();
+        text.append(line);
+        merged = null;
     }
 
+    /**
+     * @return the lines joined by <code>", "</code>, from the given offset up to at most 252 characters in total
+     */
     public String getMergedLines(int from) {
-        final String str = String.join(", ", lines);
-        final int length = Math.min(str.length(), 252);
+        if (merged == null) {
+            merged = text.substring(0, Math.min(text.length(), MAX_MERGED_LENGTH));
+        }
+        return from == 0 ? merged : merged.substring(from);
+    }
+
+    /**
+     * @return the first line, as a view that is only valid until a line is added
+     * @throws IndexOutOfBoundsException if there is no first line
+     */
+    public CharSequence getFirstLine() {
+        return getFirstLine(lineCount == 0 ? 0 : lineLength(0));
+    }
+
+    /**
+     * @return the first characters of the first line, as a view that is only valid until a line is added
+     * @throws IndexOutOfBoundsException if there is no first line or it is shorter than the given length
+     */
+    public CharSequence getFirstLine(int length) {
+        if (lineCount == 0 || length < 0 || length > lineLength(0)) {
+            throw new IndexOutOfBoundsException("length %d out of bounds of first line".formatted(length));
+        }
+        return CharBuffer.wrap(text, 0, length);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
 
-        return str.substring(from, length);
+    public String getLine(int index) {
+        if (index < 0 || index >= lineCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return text.substring(lineStarts[index], lineStarts[index] + lineLength(index));
     }
 
+    /**
+     * @return an unmodifiable view of the lines, each copied out of the buffer when it is accessed
+     */
     public List<String> getLines() {
-        return lines;
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return getLine(index);
+            }
+
+            @Override
+            public int size() {
+                return lineCount;
+            }
+        };
     }
 
     public String getFile() {
         return file;
     }
 
+    /**
+     * @return content digest of the statement file the transaction is from, null if not known
+     */
+    public String getFileDigest() {
+        return fileDigest;
+    }
+
+    public void setFileDigest(String fileDigest) {
+        this.fileDigest = fileDigest;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return date of the statement the transaction is on, null if not known
+     */
+    public LocalDate getStatementDate() {
+        return statementDate;
+    }
+
+    public void setStatementDate(LocalDate statementDate) {
+        this.statementDate = statementDate;
+    }
+
+    private int lineLength(int index) {
+        final int end = index + 1 < lineCount ? lineStarts[index + 1] - SEPARATOR.length() : text.length();
+        return end - lineStarts[index];
+    }
+
     @Override
     public String toString() {
-        return "RawTransaction {file=%s, content=%s}".formatted(file, lines.toString());
+        return "RawTransaction {file=%s, content=%s}".formatted(file, getLines().toString());
     }
 }
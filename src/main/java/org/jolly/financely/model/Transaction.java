@@ -12,9 +12,17 @@ import java.util.Objects;
  */
 @Entity
 @EntityListeners(AuditListener.class)
+@Table(indexes = {
+        @Index(name = "ux_transaction_fingerprint", columnList = "fingerprint", unique = true),
+        @Index(name = "ix_transaction_bank_date", columnList = "bank, date")
+})
 public class Transaction implements Comparable<Transaction>, Auditable {
+    // ids are also handed out in blocks by the batch insert writers, so they must agree on the allocation size
+    public static final String ID_SEQUENCE = "transaction_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     @Embedded
     private Audit audit;
@@ -37,6 +45,8 @@ public class Transaction implements Comparable<Transaction>, Auditable {
     private Bank bank;
     @Embedded
     private Instalment instalment;
+    @Column(length = TransactionFingerprint.LENGTH)
+    private String fingerprint;
     // from
     // to
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -69,6 +79,9 @@ public class Transaction implements Comparable<Transaction>, Auditable {
         private boolean isSalary = false;
         private boolean isInstalment = false;
         private Instalment instalment;
+        private String fileDigest;
+        private int page;
+        private int line;
 
         public Builder(String file, LocalDate date, Bank bank, String description) {
             this.file = file;
@@ -102,6 +115,24 @@ public class Transaction implements Comparable<Transaction>, Auditable {
             return this;
         }
 
+        /**
+         * Content digest of the source file, which identifies it in the fingerprint instead of its name.
+         */
+        public Builder fileDigest(String val) {
+            fileDigest = val;
+            return this;
+        }
+
+        /**
+         * Position of the transaction in its source file, which tells apart otherwise identical transactions in
+         * its fingerprint.
+         */
+        public Builder position(int page, int line) {
+            this.page = page;
+            this.line = line;
+            return this;
+        }
+
         public Transaction build() {
             return new Transaction(this);
         }
@@ -117,6 +148,8 @@ public class Transaction implements Comparable<Transaction>, Auditable {
         this.isSalary = builder.isSalary;
         this.isInstalment = builder.isInstalment;
         this.instalment = builder.instalment;
+        this.fingerprint = TransactionFingerprint.of(bank, builder.fileDigest != null ? builder.fileDigest : file,
+                date, debit, credit, description, builder.page, builder.line);
     }
 
     public String getDateStr() {
@@ -235,6 +268,22 @@ public class Transaction implements Comparable<Transaction>, Auditable {
         isSalary = salary;
     }
 
+    public boolean isInstalment() {
+        return isInstalment;
+    }
+
+    public void setInstalment(boolean instalment) {
+        isInstalment = instalment;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
     public Instalment getInstalment() {
         return instalment;
     }
@@ -0,0 +1,76 @@
+package org.jolly.financely.model;
+
+import org.jolly.financely.constant.Bank;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * @author jolly
+ */
+public final class TransactionFingerprint {
+    public static final int LENGTH = 64;
+    private static final char SEPARATOR = '\u001F';
+
+    private TransactionFingerprint() {}
+
+    /**
+     * @param source content digest of the source file, or its name if the digest is not known
+     */
+    public static String of(Bank bank, String source, LocalDate date, Money debit, Money credit, String description,
+                            int page, int line) {
+        final StringBuilder sb = new StringBuilder(128)
+                .append(bank).append(SEPARATOR)
+                .append(source).append(SEPARATOR)
+                .append(date).append(SEPARATOR);
+        appendAmount(sb, 'D', debit);
+        appendAmount(sb, 'C', credit);
+        sb.append(normalize(description)).append(SEPARATOR)
+                .append(page).append(':').append(line);
+
+        return HexFormat.of().formatHex(sha256().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(description.length());
+        boolean space = false;
+        for (int i = 0; i < description.length(); i++) {
+            final char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = !sb.isEmpty();
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void appendAmount(StringBuilder sb, char side, Money money) {
+        if (money != null) {
+            // scale is not significant, 10.5 and 10.50 are the same amount
+            sb.append(side).append(money.getAmount().stripTrailingZeros().toPlainString())
+                    .append(money.getCurrency());
+        }
+        sb.append(SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
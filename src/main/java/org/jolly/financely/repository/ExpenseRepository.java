@@ -1,10 +1,24 @@
 package org.jolly.financely.repository;
 
 import org.jolly.financely.model.Expense;
+import org.jolly.financely.repository.projection.MonthlyCategoryTotal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Year;
+import java.util.List;
 
 /**
  * @author jolly
  */
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+    @Query("""
+            select e.year as year, e.month as month, e.category as category,
+                sum(e.price.amount) as total, count(e) as count
+            from Expense e
+            where e.year = :year
+            group by e.year, e.month, e.category
+            order by e.month, sum(e.price.amount) desc""")
+    List<MonthlyCategoryTotal> findMonthlyCategoryTotals(@Param("year") Year year);
 }
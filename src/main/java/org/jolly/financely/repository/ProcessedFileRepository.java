@@ -0,0 +1,15 @@
+package org.jolly.financely.repository;
+
+import org.jolly.financely.model.ProcessedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+/**
+ * @author jolly
+ */
+public interface ProcessedFileRepository extends JpaRepository<ProcessedFile, Long> {
+    Optional<ProcessedFile> findByPath(String path);
+
+    boolean existsByDigest(String digest);
+}
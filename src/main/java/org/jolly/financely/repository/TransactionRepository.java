@@ -1,10 +1,89 @@
 package org.jolly.financely.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.jolly.financely.constant.Bank;
 import org.jolly.financely.model.Transaction;
+import org.jolly.financely.repository.projection.ColumnarTransaction;
+import org.jolly.financely.repository.projection.DescriptionTotal;
+import org.jolly.financely.repository.projection.InstalmentSchedule;
+import org.jolly.financely.repository.projection.MonthlyBankTotal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author jolly
  */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    @Query("select t.fingerprint from Transaction t where t.fingerprint in :fingerprints")
+    Set<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    @Query("""
+            select t.bank as bank, year(t.date) as year, month(t.date) as month,
+                coalesce(t.debit.currency, t.credit.currency) as currency,
+                coalesce(sum(t.debit.amount), 0) as debit, coalesce(sum(t.credit.amount), 0) as credit,
+                count(t) as count
+            from Transaction t
+            where t.date between :from and :to and (t.debit.amount is not null or t.credit.amount is not null)
+            group by t.bank, year(t.date), month(t.date), coalesce(t.debit.currency, t.credit.currency)
+            order by year(t.date), month(t.date), t.bank, coalesce(t.debit.currency, t.credit.currency)""")
+    List<MonthlyBankTotal> findMonthlyTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select t.bank as bank, year(t.date) as year, month(t.date) as month,
+                coalesce(t.debit.currency, t.credit.currency) as currency,
+                coalesce(sum(t.debit.amount), 0) as debit, coalesce(sum(t.credit.amount), 0) as credit,
+                count(t) as count
+            from Transaction t
+            where t.bank = :bank and t.date between :from and :to
+                and (t.debit.amount is not null or t.credit.amount is not null)
+            group by t.bank, year(t.date), month(t.date), coalesce(t.debit.currency, t.credit.currency)
+            order by year(t.date), month(t.date), coalesce(t.debit.currency, t.credit.currency)""")
+    List<MonthlyBankTotal> findMonthlyTotals(@Param("bank") Bank bank, @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @Query("""
+            select t.description as description, t.debit.currency as currency, sum(t.debit.amount) as debit,
+                count(t) as count
+            from Transaction t
+            where t.bank = :bank and t.date between :from and :to and t.debit.amount is not null
+            group by t.description, t.debit.currency
+            order by sum(t.debit.amount) desc""")
+    List<DescriptionTotal> findTopDescriptions(@Param("bank") Bank bank, @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("""
+            select t.description as description, t.debit.currency as currency, sum(t.debit.amount) as debit,
+                count(t) as count
+            from Transaction t
+            where t.date between :from and :to and t.debit.amount is not null
+            group by t.description, t.debit.currency
+            order by sum(t.debit.amount) desc""")
+    List<DescriptionTotal> findTopDescriptions(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                               Pageable pageable);
+
+    @Query("""
+            select t.bank as bank, t.description as description,
+                max(t.instalment.number) as paid, t.instalment.total as total,
+                max(t.debit.amount) as monthlyAmount, min(t.date) as firstDate, max(t.date) as lastDate
+            from Transaction t
+            where t.isInstalment = true
+            group by t.bank, t.description, t.instalment.total
+            order by max(t.date) desc""")
+    List<InstalmentSchedule> findInstalmentSchedules();
+
+    @Query("""
+            select t.date as date, t.bank as bank, t.debit as debit, t.credit as credit, t.description as description
+            from Transaction t""")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ColumnarTransaction> streamColumnar();
 }
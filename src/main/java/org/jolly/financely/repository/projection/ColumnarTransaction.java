@@ -0,0 +1,19 @@
+package org.jolly.financely.repository.projection;
+
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.model.Money;
+
+import java.time.LocalDate;
+
+/**
+ * The fields of a transaction kept by the in-memory columnar store.
+ *
+ * @author jolly
+ */
+public interface ColumnarTransaction {
+    LocalDate getDate();
+    Bank getBank();
+    Money getDebit();
+    Money getCredit();
+    String getDescription();
+}
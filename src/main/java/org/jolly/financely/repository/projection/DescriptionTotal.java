@@ -0,0 +1,16 @@
+package org.jolly.financely.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Total debited to one transaction description in one currency.
+ *
+ * @author jolly
+ */
+public interface DescriptionTotal {
+    String getDescription();
+    Currency getCurrency();
+    BigDecimal getDebit();
+    long getCount();
+}
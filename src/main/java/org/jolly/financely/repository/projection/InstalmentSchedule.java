@@ -0,0 +1,25 @@
+package org.jolly.financely.repository.projection;
+
+import org.jolly.financely.constant.Bank;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Progress of one instalment plan, made up of all its monthly instalment transactions.
+ *
+ * @author jolly
+ */
+public interface InstalmentSchedule {
+    Bank getBank();
+    String getDescription();
+    int getPaid();
+    int getTotal();
+    BigDecimal getMonthlyAmount();
+    LocalDate getFirstDate();
+    LocalDate getLastDate();
+
+    default int getRemaining() {
+        return getTotal() - getPaid();
+    }
+}
@@ -0,0 +1,22 @@
+package org.jolly.financely.repository.projection;
+
+import org.jolly.financely.constant.Bank;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Debit and credit totals of one bank over one calendar month, in one currency, since amounts in different
+ * currencies are never added together.
+ *
+ * @author jolly
+ */
+public interface MonthlyBankTotal {
+    Bank getBank();
+    int getYear();
+    int getMonth();
+    Currency getCurrency();
+    BigDecimal getDebit();
+    BigDecimal getCredit();
+    long getCount();
+}
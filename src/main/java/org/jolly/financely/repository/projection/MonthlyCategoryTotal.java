@@ -0,0 +1,18 @@
+package org.jolly.financely.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Expense total of one category over one calendar month.
+ *
+ * @author jolly
+ */
+public interface MonthlyCategoryTotal {
+    Year getYear();
+    Month getMonth();
+    String getCategory();
+    BigDecimal getTotal();
+    long getCount();
+}
@@ -0,0 +1,55 @@
+package org.jolly.financely.response;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author jolly
+ */
+public record JobExecutionResponse(Long id,
+                                   String jobName,
+                                   BatchStatus status,
+                                   String exitCode,
+                                   String exitDescription,
+                                   LocalDateTime startTime,
+                                   LocalDateTime endTime,
+                                   List<StepResponse> steps) {
+
+    public static JobExecutionResponse of(JobExecution jobExecution) {
+        return new JobExecutionResponse(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getStatus(),
+                jobExecution.getExitStatus().getExitCode(),
+                jobExecution.getExitStatus().getExitDescription(),
+                jobExecution.getStartTime(),
+                jobExecution.getEndTime(),
+                jobExecution.getStepExecutions().stream()
+                        .map(StepResponse::of)
+                        .toList());
+    }
+
+    public record StepResponse(String stepName,
+                               BatchStatus status,
+                               long readCount,
+                               long filterCount,
+                               long writeCount,
+                               long skipCount,
+                               long commitCount) {
+
+        public static StepResponse of(StepExecution stepExecution) {
+            return new StepResponse(
+                    stepExecution.getStepName(),
+                    stepExecution.getStatus(),
+                    stepExecution.getReadCount(),
+                    stepExecution.getFilterCount(),
+                    stepExecution.getWriteCount(),
+                    stepExecution.getSkipCount(),
+                    stepExecution.getCommitCount());
+        }
+    }
+}
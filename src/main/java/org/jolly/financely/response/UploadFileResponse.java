@@ -12,18 +12,49 @@ public class UploadFileResponse {
     private final String message;
     private final String fileDownloadUri;
     private final Bank bank;
+    private final Long jobExecutionId;
 
-    UploadFileResponse(String fileName, String fileType, long size, String message, String fileDownloadUri, Bank bank) {
+    UploadFileResponse(String fileName, String fileType, long size, String message, String fileDownloadUri, Bank bank,
+                       Long jobExecutionId) {
         this.fileName = fileName;
         this.fileType = fileType;
         this.size = size;
         this.message = message;
         this.fileDownloadUri = fileDownloadUri;
         this.bank = bank;
+        this.jobExecutionId = jobExecutionId;
     }
 
     UploadFileResponse() {
-        this(null, null, 0, null, null, null);
+        this(null, null, 0, null, null, null, null);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getFileDownloadUri() {
+        return fileDownloadUri;
+    }
+
+    public Bank getBank() {
+        return bank;
+    }
+
+    public Long getJobExecutionId() {
+        return jobExecutionId;
     }
 
     public static class Builder {
@@ -33,6 +64,7 @@ public class UploadFileResponse {
         private String message;
         private String fileDownloadUri;
         private Bank bank;
+        private Long jobExecutionId;
 
         public Builder fileName(String val) {
             fileName = val;
@@ -64,6 +96,11 @@ public class UploadFileResponse {
             return this;
         }
 
+        public Builder jobExecutionId(Long val) {
+            jobExecutionId = val;
+            return this;
+        }
+
         public UploadFileResponse build() {
             return new UploadFileResponse(this);
         }
@@ -76,5 +113,6 @@ public class UploadFileResponse {
         this.message = builder.message;
         this.fileDownloadUri = builder.fileDownloadUri;
         this.bank = builder.bank;
+        this.jobExecutionId = builder.jobExecutionId;
     }
 }
@@ -0,0 +1,95 @@
+package org.jolly.financely.upload;
+
+import org.jolly.financely.batch.launch.JobLaunchService;
+import org.jolly.financely.batch.reader.BankDetector;
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.constant.MDCKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Launches the job of the bank a stored statement is from on just that statement, detecting the bank from its
+ * first page unless it is given.
+ *
+ * @author jolly
+ */
+@Service
+public class IngestionRouter {
+    private static final Logger log = LoggerFactory.getLogger(IngestionRouter.class);
+    private final BankDetector bankDetector;
+    private final JobLaunchService jobLaunchService;
+    // partitioned job of each bank, which loads just the given file
+    private final Map<Bank, Job> jobs = new EnumMap<>(Bank.class);
+
+    public IngestionRouter(BankDetector bankDetector,
+                           JobLaunchService jobLaunchService,
+                           @Qualifier("uobBankPartitionedJob") Job uobJob,
+                           @Qualifier("cimbBankPartitionedJob") Job cimbJob,
+                           @Qualifier("mbbBankPartitionedJob") Job mbbJob,
+                           @Qualifier("tngBankPartitionedJob") Job tngJob,
+                           @Qualifier("gxBankPartitionedJob") Job gxJob) {
+        this.bankDetector = bankDetector;
+        this.jobLaunchService = jobLaunchService;
+        jobs.put(Bank.UOB, uobJob);
+        jobs.put(Bank.CIMB, cimbJob);
+        jobs.put(Bank.MBB, mbbJob);
+        jobs.put(Bank.TNG, tngJob);
+        jobs.put(Bank.GXB, gxJob);
+    }
+
+    /**
+     * @param bank bank the statement is from, null to detect it
+     * @return the bank the statement was routed to, with the launched job execution, or without one if the bank
+     * could not be detected or has no job
+     */
+    public Route route(UploadStore.StoredFile file, Bank bank) throws IOException, JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException, JobParametersInvalidException, JobRestartException {
+        final BankDetector.Detection detection;
+        if (bank != null) {
+            detection = new BankDetector.Detection(bank, 1);
+        } else {
+            final long start = System.nanoTime();
+            detection = bankDetector.detect(new FileSystemResource(file.path()), null);
+            log.info("detected bank: {} with confidence: {} of file: {} in {} ms", detection.bank(),
+                    detection.confidence(), file.originalFileName(), (System.nanoTime() - start) / 1_000_000);
+            if (!bankDetector.isConfident(detection)) {
+                return new Route(detection, null);
+            }
+        }
+
+        final Job job = jobs.get(detection.bank());
+        if (job == null) {
+            log.warn("no job for bank: {} of file: {}", detection.bank(), file.originalFileName());
+            return new Route(detection, null);
+        }
+        MDC.put(MDCKey.BANK.name(), detection.bank().name());
+        try {
+            return new Route(detection, jobLaunchService.launch(job, file.path(), bank));
+        } finally {
+            MDC.remove(MDCKey.BANK.name());
+        }
+    }
+
+    public boolean isSupported(Bank bank) {
+        return jobs.containsKey(bank);
+    }
+
+    /**
+     * @param jobExecution launched job execution, null if none was launched
+     */
+    public record Route(BankDetector.Detection detection, JobExecution jobExecution) {
+    }
+}
@@ -0,0 +1,86 @@
+package org.jolly.financely.upload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * @author jolly
+ */
+@Component
+public class UploadStore {
+    private static final Logger log = LoggerFactory.getLogger(UploadStore.class);
+    private final Path directory;
+
+    public UploadStore(@Value("${file.upload.dir:${file.path.base.dir}/uploads}") Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        Files.createDirectories(this.directory);
+    }
+
+    public StoredFile store(MultipartFile file) throws IOException {
+        final MessageDigest digest = sha256();
+        final Path part = Files.createTempFile(directory, "upload-", ".part");
+        final long size;
+        try (InputStream in = file.getInputStream();
+             OutputStream out = new DigestOutputStream(Files.newOutputStream(part), digest)) {
+            size = in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+
+        final String sha256 = HexFormat.of().formatHex(digest.digest());
+        final String extension = StringUtils.getFilenameExtension(file.getOriginalFilename());
+        final Path stored = directory.resolve(sha256 + (extension == null ? "" : "." + extension.toLowerCase(Locale.ROOT)));
+        try {
+            Files.move(part, stored);
+        } catch (FileAlreadyExistsException e) {
+            // same content, possibly stored by a concurrent upload, and a job may be reading the stored one
+            log.debug("file: {} already uploaded as: {}", file.getOriginalFilename(), stored);
+            Files.delete(part);
+        }
+        log.info("stored upload: {}, size: {}, sha256: {}", file.getOriginalFilename(), size, sha256);
+        return new StoredFile(stored, file.getOriginalFilename(), size, sha256);
+    }
+
+    /**
+     * @param name name of a stored file, as in {@link StoredFile#path()}
+     * @return the stored file, or null if there is none of that name
+     */
+    public Path find(String name) {
+        final Path file = directory.resolve(name).normalize();
+        if (!directory.equals(file.getParent()) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param originalFileName name of the file on the uploader's side
+     */
+    public record StoredFile(Path path, String originalFileName, long size, String sha256) {
+    }
+}
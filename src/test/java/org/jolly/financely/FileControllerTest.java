@@ -0,0 +1,113 @@
+package org.jolly.financely;
+
+import org.jolly.financely.batch.reader.BankDetector;
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.exception.JobRejectedException;
+import org.jolly.financely.upload.IngestionRouter;
+import org.jolly.financely.upload.UploadStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the responses of {@link FileController} to uploads that are routed, rejected or not routed, and downloads.
+ */
+class FileControllerTest {
+    private static final MockMultipartFile STATEMENT = new MockMultipartFile("file", "statement.pdf",
+            "application/pdf", "statement".getBytes(StandardCharsets.UTF_8));
+    @TempDir
+    Path tempDir;
+    private UploadStore uploadStore;
+    private IngestionRouter ingestionRouter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadStore = new UploadStore(tempDir);
+        ingestionRouter = mock(IngestionRouter.class);
+        when(ingestionRouter.isSupported(any())).thenAnswer(invocation -> invocation.getArgument(0) != Bank.PBB);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController(uploadStore, ingestionRouter)).build();
+    }
+
+    @Test
+    void acceptsAStatementAndPointsToItsJob() throws Exception {
+        final JobExecution jobExecution = new JobExecution(new JobInstance(7L, "job"), 42L, new JobParameters());
+        when(ingestionRouter.route(any(), eq(Bank.UOB)))
+                .thenReturn(new IngestionRouter.Route(new BankDetector.Detection(Bank.UOB, 1), jobExecution));
+
+        mockMvc.perform(multipart("/file/upload").file(STATEMENT).param("bank", "UOB"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/jobs/42"))
+                .andExpect(jsonPath("$.jobExecutionId").value(42))
+                .andExpect(jsonPath("$.bank").value("UOB"))
+                .andExpect(jsonPath("$.size").value(9))
+                .andExpect(jsonPath("$.fileName").value(uploadStore.store(STATEMENT).path().getFileName().toString()));
+    }
+
+    @Test
+    void rejectsAnUnsupportedBankBeforeStoringTheStatement() throws Exception {
+        mockMvc.perform(multipart("/file/upload").file(STATEMENT).param("bank", "PBB"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("statements of bank: PBB are not supported"));
+        verify(ingestionRouter, never()).route(any(), any());
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void reportsAStatementOfAnUndetectedBank() throws Exception {
+        when(ingestionRouter.route(any(), isNull()))
+                .thenReturn(new IngestionRouter.Route(BankDetector.Detection.NONE, null));
+
+        mockMvc.perform(multipart("/file/upload").file(STATEMENT))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("bank could not be detected, pass it as a parameter"))
+                .andExpect(jsonPath("$.jobExecutionId").doesNotExist());
+    }
+
+    @Test
+    void rejectsAStatementWhenNoJobCanBeQueued() throws Exception {
+        when(ingestionRouter.route(any(), eq(Bank.CIMB))).thenThrow(new JobRejectedException("job queue is full"));
+
+        mockMvc.perform(multipart("/file/upload").file(STATEMENT).param("bank", "CIMB"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void downloadsAStoredStatement() throws Exception {
+        final String fileName = uploadStore.store(STATEMENT).path().getFileName().toString();
+
+        mockMvc.perform(get("/file/{fileName}", fileName))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "\""))
+                .andExpect(content().bytes("statement".getBytes(StandardCharsets.UTF_8)));
+        mockMvc.perform(get("/file/{fileName}", "missing.pdf"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,271 @@
+package org.jolly.financely.aggregate;
+
+import org.jolly.financely.batch.launch.JobCompletionNotifier;
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.model.Money;
+import org.jolly.financely.repository.TransactionRepository;
+import org.jolly.financely.repository.projection.ColumnarTransaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the fork-join aggregation of {@link TransactionColumns}, as loaded by {@link TransactionColumnStore}, against
+ * summing the same transactions one at a time.
+ */
+class TransactionColumnsTest {
+    private static final Currency MYR = Currency.getInstance("MYR");
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    // enough rows for the aggregation to split into several leaves
+    private static final int ROWS = AggregateTask.LEAF_SIZE * 6 + 123;
+    private static final List<Row> TRANSACTIONS = transactions(ROWS, new Random(42));
+
+    /**
+     * A stored transaction, as streamed from the repository.
+     */
+    private record Row(LocalDate date, Bank bank, Money debit, Money credit, String description)
+            implements ColumnarTransaction {
+        @Override
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public Bank getBank() {
+            return bank;
+        }
+
+        @Override
+        public Money getDebit() {
+            return debit;
+        }
+
+        @Override
+        public Money getCredit() {
+            return credit;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * A group total with its amounts at the scale of their currency.
+     */
+    private record Total(Bank bank, YearMonth month, String description, Currency currency, BigDecimal debit,
+                         BigDecimal credit, long count) {
+        static Total of(GroupTotal total) {
+            return new Total(total.bank(), total.month(), total.description(), total.currency(),
+                    scaled(total.debit().getAmount(), total.currency()),
+                    scaled(total.credit().getAmount(), total.currency()), total.count());
+        }
+    }
+
+    @BeforeAll
+    static void init() {
+        Money.init(MYR, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    void aggregatesAsASequentialSum() {
+        final TransactionColumns columns = build(TRANSACTIONS);
+        assertThat(columns.size()).isEqualTo((int) TRANSACTIONS.stream().filter(TransactionColumnsTest::hasAmount).count());
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (ColumnFilter filter : filters()) {
+                for (Set<Dimension> groupBy : groupings()) {
+                    final List<Total> expected = sequentialSum(TRANSACTIONS, filter, groupBy);
+                    assertThat(columns.aggregate(filter, groupBy, pool)).as("%s by: %s", filter, groupBy)
+                            .map(Total::of)
+                            .containsExactlyElementsOf(expected);
+                    assertThat(columns.aggregate(filter, groupBy)).as("%s by: %s", filter, groupBy)
+                            .map(Total::of)
+                            .containsExactlyElementsOf(expected);
+                }
+                assertThat(columns.count(filter)).as("count of: %s", filter)
+                        .isEqualTo(TRANSACTIONS.stream().filter(t -> hasAmount(t) && matches(filter, t)).count());
+            }
+        }
+    }
+
+    @Test
+    void aggregatesNothingWithoutRows() {
+        assertThat(TransactionColumns.empty().aggregate(ColumnFilter.ALL, EnumSet.allOf(Dimension.class))).isEmpty();
+        assertThat(TransactionColumns.empty().count(ColumnFilter.ALL)).isZero();
+    }
+
+    @Test
+    void loadsTheStoredTransactionsAgainOnlyAfterAJobWroteSome() {
+        final List<Row> stored = new ArrayList<>(TRANSACTIONS.subList(0, 1_000));
+        final TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.streamColumnar()).thenAnswer(invocation -> new ArrayList<ColumnarTransaction>(stored).stream());
+        final JobCompletionNotifier notifier = new JobCompletionNotifier();
+        final TransactionColumnStore store = new TransactionColumnStore(repository,
+                mock(PlatformTransactionManager.class), notifier);
+        final Set<Dimension> byMonth = EnumSet.of(Dimension.MONTH);
+
+        assertThat(store.columns().aggregate(ColumnFilter.ALL, byMonth)).map(Total::of)
+                .containsExactlyElementsOf(sequentialSum(stored, ColumnFilter.ALL, byMonth));
+        assertThat(store.columns()).isSameAs(store.columns());
+
+        stored.addAll(TRANSACTIONS.subList(1_000, 2_000));
+        notifier.afterJob(jobExecution(0));
+        assertThat(store.columns().size()).isEqualTo(1_000);
+        verify(repository, times(1)).streamColumnar();
+
+        notifier.afterJob(jobExecution(10));
+        assertThat(store.columns().aggregate(ColumnFilter.ALL, byMonth)).map(Total::of)
+                .containsExactlyElementsOf(sequentialSum(stored, ColumnFilter.ALL, byMonth));
+        verify(repository, times(2)).streamColumnar();
+    }
+
+    private static TransactionColumns build(List<Row> rows) {
+        final TransactionColumns.Builder builder = TransactionColumns.builder();
+        for (Row row : rows) {
+            builder.add(row.date(), row.bank(), row.debit(), row.credit(), row.description());
+        }
+        return builder.build();
+    }
+
+    private static List<Total> sequentialSum(List<Row> rows, ColumnFilter filter, Set<Dimension> groupBy) {
+        final Map<List<Object>, BigDecimal[]> sums = new HashMap<>();
+        final Map<List<Object>, Long> counts = new HashMap<>();
+        for (Row row : rows) {
+            if (!hasAmount(row) || !matches(filter, row)) {
+                continue;
+            }
+            final Currency currency = row.debit() != null ? row.debit().getCurrency() : row.credit().getCurrency();
+            final List<Object> key = new ArrayList<>();
+            key.add(groupBy.contains(Dimension.BANK) ? row.bank() : null);
+            key.add(groupBy.contains(Dimension.MONTH) ? YearMonth.from(row.date()) : null);
+            key.add(groupBy.contains(Dimension.DESCRIPTION) ? row.description() : null);
+            key.add(currency);
+            final BigDecimal[] sum = sums.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            if (row.debit() != null) {
+                sum[0] = sum[0].add(row.debit().getAmount());
+            }
+            if (row.credit() != null) {
+                sum[1] = sum[1].add(row.credit().getAmount());
+            }
+            counts.merge(key, 1L, Long::sum);
+        }
+        final List<Total> totals = new ArrayList<>();
+        sums.forEach((key, sum) -> {
+            final Currency currency = (Currency) key.get(3);
+            totals.add(new Total((Bank) key.get(0), (YearMonth) key.get(1), (String) key.get(2), currency,
+                    scaled(sum[0], currency), scaled(sum[1], currency), counts.get(key)));
+        });
+        totals.sort(Comparator
+                .comparing(Total::month, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Total::bank, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Total::description, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(t -> t.currency().getCurrencyCode()));
+        return totals;
+    }
+
+    private static boolean hasAmount(Row row) {
+        return row.debit() != null || row.credit() != null;
+    }
+
+    private static boolean matches(ColumnFilter filter, Row row) {
+        return (filter.from() == null || !row.date().isBefore(filter.from()))
+                && (filter.to() == null || !row.date().isAfter(filter.to()))
+                && (filter.banks().isEmpty() || row.bank() != null && filter.banks().contains(row.bank()));
+    }
+
+    private static BigDecimal scaled(BigDecimal amount, Currency currency) {
+        return amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.UNNECESSARY);
+    }
+
+    private static List<ColumnFilter> filters() {
+        return List.of(
+                ColumnFilter.ALL,
+                new ColumnFilter(LocalDate.of(2018, 3, 15), LocalDate.of(2020, 2, 29), null),
+                new ColumnFilter(LocalDate.of(2021, 1, 1), null, Set.of()),
+                new ColumnFilter(null, LocalDate.of(2016, 12, 31), Set.of(Bank.TNG)),
+                new ColumnFilter(null, null, Set.of(Bank.UOB, Bank.CIMB)),
+                new ColumnFilter(LocalDate.of(2019, 6, 1), LocalDate.of(2019, 6, 1), Set.of(Bank.MBB, Bank.GXB)),
+                // none of the rows are of this bank or after this date
+                new ColumnFilter(null, null, Set.of(Bank.PBB)),
+                new ColumnFilter(LocalDate.of(2030, 1, 1), null, null));
+    }
+
+    /**
+     * @return every combination of dimensions
+     */
+    private static List<Set<Dimension>> groupings() {
+        final Dimension[] dimensions = Dimension.values();
+        final List<Set<Dimension>> groupings = new ArrayList<>();
+        for (int mask = 0; mask < 1 << dimensions.length; mask++) {
+            final Set<Dimension> groupBy = EnumSet.noneOf(Dimension.class);
+            for (int i = 0; i < dimensions.length; i++) {
+                if ((mask & 1 << i) != 0) {
+                    groupBy.add(dimensions[i]);
+                }
+            }
+            groupings.add(groupBy);
+        }
+        return groupings;
+    }
+
+    /**
+     * @return rows of 2015 to 2024 in three currencies, of a bank or none, with a debit, a credit, both or neither
+     */
+    private static List<Row> transactions(int count, Random random) {
+        final Bank[] banks = {Bank.UOB, Bank.CIMB, Bank.MBB, Bank.TNG, Bank.GXB, null};
+        final Currency[] currencies = {MYR, MYR, MYR, USD, JPY};
+        final LocalDate first = LocalDate.of(2015, 1, 1);
+        final int days = (int) (LocalDate.of(2025, 1, 1).toEpochDay() - first.toEpochDay());
+        final List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Currency currency = currencies[random.nextInt(currencies.length)];
+            final int side = random.nextInt(10);
+            rows.add(new Row(first.plusDays(random.nextInt(days)),
+                    banks[random.nextInt(banks.length)],
+                    side < 6 || side == 9 ? amount(random, currency) : null,
+                    side >= 6 && side < 9 || side == 9 ? amount(random, currency) : null,
+                    "SHOP " + random.nextInt(40)));
+        }
+        // a row without an amount is left out
+        rows.add(new Row(first, Bank.UOB, null, null, "NO AMOUNT"));
+        return rows;
+    }
+
+    private static Money amount(Random random, Currency currency) {
+        return Money.of(BigDecimal.valueOf(random.nextInt(10_000_000), currency.getDefaultFractionDigits()), currency);
+    }
+
+    private static JobExecution jobExecution(long writeCount) {
+        final JobExecution jobExecution = new JobExecution(new JobInstance(1L, "job"), 1L, new JobParameters());
+        final StepExecution stepExecution = jobExecution.createStepExecution("step");
+        stepExecution.setWriteCount(writeCount);
+        return jobExecution;
+    }
+}
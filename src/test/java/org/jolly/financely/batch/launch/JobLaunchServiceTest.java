@@ -0,0 +1,76 @@
+package org.jolly.financely.batch.launch;
+
+import org.jolly.financely.exception.JobRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Launches more jobs than the job executor runs and queues, as concurrent uploads would.
+ */
+class JobLaunchServiceTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void rejectsLaunchesPastTheQueueWithoutBlocking() throws Exception {
+        taskExecutor.setCorePoolSize(1);
+        taskExecutor.setMaxPoolSize(1);
+        taskExecutor.setQueueCapacity(1);
+        taskExecutor.initialize();
+
+        final AtomicLong ids = new AtomicLong();
+        final JobRepository jobRepository = mock(JobRepository.class);
+        when(jobRepository.createJobExecution(anyString(), any(JobParameters.class))).thenAnswer(invocation ->
+                new JobExecution(new JobInstance(ids.incrementAndGet(), invocation.getArgument(0)),
+                        ids.get(), invocation.getArgument(1)));
+        final TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(taskExecutor);
+        jobLauncher.afterPropertiesSet();
+        final JobLaunchService jobLaunchService = new JobLaunchService(jobLauncher);
+
+        final Job job = mock(Job.class);
+        when(job.getName()).thenReturn("job");
+        when(job.getJobParametersValidator()).thenReturn(parameters -> {});
+        doAnswer(invocation -> {
+            final JobExecution execution = invocation.getArgument(0);
+            execution.setStatus(BatchStatus.STARTED);
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(job).execute(any(JobExecution.class));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThat(jobLaunchService.launch(job).getStatus()).isNotEqualTo(BatchStatus.FAILED);
+            assertThat(jobLaunchService.launch(job).getStatus()).isNotEqualTo(BatchStatus.FAILED);
+            assertThatThrownBy(() -> jobLaunchService.launch(job)).isInstanceOf(JobRejectedException.class);
+        });
+    }
+}
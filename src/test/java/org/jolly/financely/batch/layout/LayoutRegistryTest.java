@@ -0,0 +1,211 @@
+package org.jolly.financely.batch.layout;
+
+import org.jolly.financely.batch.extractor.LineRules;
+import org.jolly.financely.batch.extractor.StatementDateExtractor;
+import org.jolly.financely.batch.parser.StatementDateParser;
+import org.jolly.financely.batch.rule.RuleSet;
+import org.jolly.financely.constant.Bank;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the shipped profiles compile to the rules the job beans of each bank were configured with before the
+ * profiles, and that a reload replaces the layouts only once all the profiles compile.
+ */
+class LayoutRegistryTest {
+    private static final List<String> HEADERS = List.of(
+            "Statement Date 12 Mar 2024",
+            "STATEMENT DATE : 1 JAN 2025 Page 1",
+            "Statement period 1 Feb 2024 - 29 Feb 2024",
+            "statement date 31 Apr 2024",
+            "Account Summary");
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compilesTheShippedProfilesToTheRulesOfTheJobBeans() throws IOException {
+        final Map<Bank, BankLayout> baselines = new EnumMap<>(Bank.class);
+        baselines.put(Bank.UOB, new BankLayout(Bank.UOB,
+                LineRules.compile("^[0-9]{2} [a-zA-Z]{3}.*", ".*Transaction Date.*", ".*END OF STATEMENT.*",
+                        new String[]{".*COMBINED LIMIT.*", ".*PREVIOUS BAL.*", ".*SUB-TOTAL.*",
+                                ".*MINIMUM PAYMENT DUE.*"}),
+                new StatementDateExtractor("(?i)statement date.*?(?<date>(?<!\\d)\\d{1,2} [a-z]{3} \\d{4})",
+                        StatementDateParser.ofPattern("d MMM yyyy")),
+                StatementDateParser.ofPattern("dd MMM"),
+                RuleSet.compile(".* CR$"),
+                RuleSet.compile(),
+                "UOBStatementBatchJob"));
+        baselines.put(Bank.CIMB, new BankLayout(Bank.CIMB,
+                LineRules.compile("^[0-9]{2}\\/[0-9]{2}\\/[0-9]{4}.*", ".*Ref No.*", ".*End of Statement.*",
+                        new String[]{"^Important Notice.*", "^Effective 8 November 2021.*",
+                                "^The Bank must be informed of any error.*",
+                                "^You can transfer funds, enquire balances.*"}),
+                null,
+                StatementDateParser.ofPattern("dd/MM/yyyy"),
+                RuleSet.compile(".*CREDIT INTEREST.*", ".*SALARY.*"),
+                RuleSet.compile(),
+                "CIMBStatementBatchJob"));
+        baselines.put(Bank.MBB, new BankLayout(Bank.MBB,
+                LineRules.compile("^[0-9]{2}\\/[0-9]{2}\\/[0-9]{4}.*", ".*ENTRY DATE.*", ".*ENDING BALANCE.*",
+                        new String[]{"^Perhation / Note.*"}),
+                null,
+                StatementDateParser.ofPattern("dd/MM/yyyy"),
+                RuleSet.compile("(?<!\\d)\\d{1,3}(?:,\\d{3})+(?:\\.\\d{2})?\\+", "\\d+\\.\\d+\\+"),
+                RuleSet.compile(),
+                "MaybankStatementBatchJob"));
+        baselines.put(Bank.TNG, new BankLayout(Bank.TNG,
+                LineRules.compile("^[0-9]{1,2}\\/[0-9]{1,2}\\/[0-9]{4}.*", null, null,
+                        new String[]{"^\\*This is a system generated email\\..*"}),
+                null,
+                StatementDateParser.ofPattern("d/M/yyyy"),
+                RuleSet.compile(".*DUITNOW_RECEI.*", ".*Receive from Wallet.*", ".*Daily Earnings.*"),
+                RuleSet.compile(".*Quick Reload Payment \\(via .*"),
+                "TNGStatementBatchJob"));
+        baselines.put(Bank.GXB, new BankLayout(Bank.GXB,
+                LineRules.compile("^[0-9]{1,2} [a-zA-Z]{3}.*", ".*Transaction description.*", null,
+                        new String[]{".*GX Bank Berhad formerly known as.*", "^Page .*"}),
+                new StatementDateExtractor(
+                        "(?i)statement (?:date|period).*(?<date>(?<!\\d)\\d{1,2} [a-z]{3} \\d{4})",
+                        StatementDateParser.ofPattern("d MMM yyyy")),
+                StatementDateParser.ofPattern("d MMM"),
+                RuleSet.compile(".*Interest earned.*", "\\+(?<!\\d)\\d{1,3}(?:,\\d{3})+(?:\\.\\d{2})?",
+                        "\\+\\d+\\.\\d+"),
+                RuleSet.compile(),
+                "GXStatementBatchJob"));
+
+        final Map<Bank, BankLayout> layouts = new LayoutRegistry(new DefaultResourceLoader(), "classpath:layouts/")
+                .layouts().byBank();
+        assertThat(layouts.keySet()).isEqualTo(baselines.keySet());
+        layouts.forEach((bank, layout) -> assertSameRules(layout, baselines.get(bank)));
+    }
+
+    @Test
+    void reloadsChangedProfiles() throws IOException {
+        copyShippedProfiles();
+        final LayoutRegistry registry = registry();
+        final Supplier<BankLayout> uob = registry.supplier(Bank.UOB);
+        final BankLayout before = uob.get();
+        assertThat(before.lineRules().skip().matches("BALANCE B/F")).isFalse();
+
+        Files.writeString(tempDir.resolve("uob.yml"), Files.readString(tempDir.resolve("uob.yml"))
+                .replace("    - '.*SUB-TOTAL.*'", "    - '.*SUB-TOTAL.*'\n    - '.*BALANCE B/F.*'"));
+        final LayoutRegistry.Layouts reloaded = registry.reload();
+
+        assertThat(uob.get()).isSameAs(reloaded.byBank().get(Bank.UOB)).isNotSameAs(before);
+        assertThat(uob.get().lineRules().skip().matches("BALANCE B/F")).isTrue();
+        assertThat(uob.get().lineRules().skip().size()).isEqualTo(before.lineRules().skip().size() + 1);
+        // a layout taken before the reload is left as it was, e.g. for a file being read
+        assertThat(before.lineRules().skip().matches("BALANCE B/F")).isFalse();
+        assertThat(rules(registry.layout(Bank.CIMB).creditTransfer())).containsExactly(".*CREDIT INTEREST.*",
+                ".*SALARY.*");
+    }
+
+    @Test
+    void reloadsAddedAndRemovedProfiles() throws IOException {
+        copyShippedProfiles();
+        final LayoutRegistry registry = registry();
+        final Supplier<BankLayout> tng = registry.supplier(Bank.TNG);
+        assertThatThrownBy(() -> registry.supplier(Bank.PBB)).isInstanceOf(IllegalStateException.class);
+
+        Files.delete(tempDir.resolve("tng.yml"));
+        Files.writeString(tempDir.resolve("pbb.json"), """
+                {"bank": "PBB", "lines": {"date": "^[0-9]{2}-[0-9]{2}.*"},
+                 "transactions": {"date-pattern": "dd-MM", "credit": [".*CR$"]}}""");
+        registry.reload();
+
+        assertThat(registry.layouts().byBank()).containsOnlyKeys(Bank.UOB, Bank.CIMB, Bank.MBB, Bank.GXB, Bank.PBB);
+        assertThatThrownBy(tng::get).isInstanceOf(IllegalStateException.class);
+        final BankLayout pbb = registry.layout(Bank.PBB);
+        assertThat(pbb.lineRules().date().matches("12-03 GRAB 8.00")).isTrue();
+        assertThat(pbb.dateParser().toString()).isEqualTo(StatementDateParser.ofPattern("dd-MM").toString());
+        assertThat(pbb.statementDateExtractor()).isNull();
+    }
+
+    @Test
+    void keepsTheLayoutsWhenAProfileIsBroken() throws IOException {
+        copyShippedProfiles();
+        final LayoutRegistry registry = registry();
+        final LayoutRegistry.Layouts layouts = registry.layouts();
+        final String uob = Files.readString(tempDir.resolve("uob.yml"));
+
+        Files.writeString(tempDir.resolve("uob.yml"), uob.replace("'.* CR$'", "'.*(CR$'"));
+        Files.writeString(tempDir.resolve("cimb.yml"), "bank: CIMB\nlines:\n  date: '^x'\n");
+        assertThatThrownBy(registry::reload).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cimb.yml");
+        Files.delete(tempDir.resolve("cimb.yml"));
+        assertThatThrownBy(registry::reload).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("uob.yml");
+
+        Files.writeString(tempDir.resolve("uob.yml"), uob);
+        Files.writeString(tempDir.resolve("uob-copy.yaml"), uob);
+        assertThatThrownBy(registry::reload).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("layout of bank: UOB in both");
+        assertThat(registry.layouts()).isSameAs(layouts);
+        assertThat(registry.layout(Bank.CIMB)).isSameAs(layouts.byBank().get(Bank.CIMB));
+    }
+
+    private LayoutRegistry registry() throws IOException {
+        return new LayoutRegistry(new DefaultResourceLoader(), tempDir.toUri().toString());
+    }
+
+    private void copyShippedProfiles() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:layouts/*.yml")) {
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, tempDir.resolve(resource.getFilename()));
+            }
+        }
+    }
+
+    private static void assertSameRules(BankLayout layout, BankLayout baseline) {
+        final LineRules lines = layout.lineRules();
+        final LineRules baselineLines = baseline.lineRules();
+        assertThat(rules(lines.date())).as("date rule of: %s", layout.source())
+                .isEqualTo(rules(baselineLines.date()));
+        assertThat(rules(lines.start())).as("start rule of: %s", layout.source())
+                .isEqualTo(rules(baselineLines.start()));
+        assertThat(rules(lines.end())).as("end rule of: %s", layout.source())
+                .isEqualTo(rules(baselineLines.end()));
+        assertThat(rules(lines.skip())).as("skip rules of: %s", layout.source())
+                .isEqualTo(rules(baselineLines.skip()));
+        assertThat(rules(layout.creditTransfer())).as("credit rules of: %s", layout.source())
+                .isEqualTo(rules(baseline.creditTransfer()));
+        assertThat(rules(layout.itemsToSkip())).as("items to skip of: %s", layout.source())
+                .isEqualTo(rules(baseline.itemsToSkip()));
+        assertThat(layout.dateParser().toString()).as("date pattern of: %s", layout.source())
+                .isEqualTo(baseline.dateParser().toString());
+        if (baseline.statementDateExtractor() == null) {
+            assertThat(layout.statementDateExtractor()).as("statement date of: %s", layout.source()).isNull();
+            return;
+        }
+        assertThat(layout.statementDateExtractor()).as("statement date of: %s", layout.source())
+                .hasToString(baseline.statementDateExtractor().toString());
+        for (String header : HEADERS) {
+            assertThat(layout.statementDateExtractor().extract(header)).as("statement date of: %s", header)
+                    .isEqualTo(baseline.statementDateExtractor().extract(header));
+        }
+    }
+
+    private static List<String> rules(RuleSet ruleSet) {
+        final List<String> rules = new ArrayList<>();
+        for (int i = 0; i < ruleSet.size(); i++) {
+            rules.add(ruleSet.rule(i));
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,133 @@
+package org.jolly.financely.batch.parser;
+
+import org.jolly.financely.batch.extractor.DefaultFieldExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks {@link MoneyParser} against the transfer amount regexes and the <code>double</code> parsing it replaced.
+ */
+class MoneyParserTest {
+    private static final String[] FRAGMENTS = {
+            " ", "CR", " CR", "+", "-", ".", ",", "/", "1", "12", "123", "1234", "0", ".5", ".50", ",000", ",12",
+            "1,234", "1,234.56", "12.50", "12/03", "GRAB", "MYR", "x", "2,5", "99,999,999.99", "1.2.3"
+    };
+
+    private final DefaultFieldExtractor transferAmountExtractor = new DefaultFieldExtractor();
+
+    {
+        transferAmountExtractor.setStringPatterns(new String[]{
+                "(?<!\\d)\\d{1,3}(?:,\\d{3})+(?:\\.\\d{2})?",
+                "\\d+\\.\\d+"
+        });
+    }
+
+    @Test
+    void findsTheAmountOfStatementLines() {
+        final String[][] rows = {
+                // line, amount as printed, value
+                {"12 MAR GRAB PAY 12.50", "12.50", "12.50"},
+                {"12 MAR SALARY 3,250.00 CR", "3,250.00", "3250.00"},
+                {"12 MAR REFUND 12.50CR", "12.50", "12.50"},
+                {"12/03/2024 TRANSFER 1,234.56+", "1,234.56", "1234.56"},
+                {"12/03/2024 DUITNOW 50.00+ 1,000.00", "1,000.00", "1000.00"},
+                {"3 Mar Interest earned +1,234.50", "1,234.50", "1234.50"},
+                {"3 Mar Card payment -12.30", "12.30", "12.30"},
+                {"BONUS 1,234,567.89 CR", "1,234,567.89", "1234567.89"},
+                {"GROUPED 1,234 FIRST 5.50", "1,234", "1234"},
+                {"PLAIN 5.50 THEN 1,234.00", "1,234.00", "1234.00"},
+                {"NOT GROUPED 1234,567.00", "567.00", "567.00"},
+                {"ONE DECIMAL 1,234.5", "1,234", "1234"},
+                {"THREE DECIMALS 12.345", "12.345", "12.345"},
+                {"REF 20240312 AMOUNT 8.00", "8.00", "8.00"},
+                {"LARGE 92233720368547758.07", "92233720368547758.07", "92233720368547758.07"},
+        };
+        for (String[] row : rows) {
+            final MoneyParser.ParsedAmount amount = MoneyParser.find(row[0]);
+            assertThat(row[0].substring(amount.start(), amount.end())).as("amount in: %s", row[0]).isEqualTo(row[1]);
+            assertThat(amount.toBigDecimal()).as("amount in: %s", row[0]).isEqualTo(new BigDecimal(row[2]));
+            assertThat(transferAmountExtractor.getField(row[0])).as("regex amount in: %s", row[0]).isEqualTo(row[1]);
+        }
+    }
+
+    @Test
+    void findsNoAmountWhereTheRegexesFindNone() {
+        for (String line : new String[]{"", "12 MAR NO AMOUNT", "1234", "1,23", "12.", ".50", "12 MAR 1/2"}) {
+            assertThat(MoneyParser.find(line)).as("amount in: %s", line).isNull();
+            assertThat(transferAmountExtractor.getField(line)).as("regex amount in: %s", line).isEmpty();
+        }
+    }
+
+    @Test
+    void findsTheAmountTheRegexesFind() {
+        final Random random = new Random(42);
+        for (int n = 0; n < 20_000; n++) {
+            final StringBuilder line = new StringBuilder();
+            for (int j = random.nextInt(8); j >= 0; j--) {
+                line.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            final String text = line.toString();
+            final String expected = transferAmountExtractor.getField(text);
+            final MoneyParser.ParsedAmount amount = MoneyParser.find(text);
+            if (expected.isEmpty()) {
+                assertThat(amount).as("amount in: %s", text).isNull();
+                continue;
+            }
+            assertThat(amount).as("amount in: %s", text).isNotNull();
+            assertThat(text.substring(amount.start(), amount.end())).as("amount in: %s", text).isEqualTo(expected);
+            assertThat(amount.toBigDecimal()).as("amount in: %s", text)
+                    .isEqualTo(new BigDecimal(expected.replace(",", "")));
+            // the double the amount was parsed with before has the same value, at its own scale, as long as it
+            // holds all the digits
+            if (amount.toBigDecimal().precision() <= 15) {
+                assertThat(amount.toBigDecimal())
+                        .isEqualByComparingTo(BigDecimal.valueOf(Double.parseDouble(expected.replace(",", ""))));
+            }
+        }
+    }
+
+    @Test
+    void parsesWholeAmountsAsDouble() {
+        for (String text : new String[]{"12.50", "-12.5", "+3", " 7.25 ", "0", "0.01", "-0.99", "1000000", ".5",
+                "5."}) {
+            assertThat(MoneyParser.parse(text).toBigDecimal()).as("amount: %s", text)
+                    .isEqualByComparingTo(BigDecimal.valueOf(Double.parseDouble(text)));
+        }
+    }
+
+    @Test
+    void parsesWholeAmountsWithThousandsSeparators() {
+        final String[][] rows = {
+                {"1,234.50", "1234.50"},
+                {"-1,234,567", "-1234567"},
+                {"+999,999.99", "999999.99"},
+                {" 12,000 ", "12000"},
+        };
+        for (String[] row : rows) {
+            assertThat(MoneyParser.parse(row[0]).toBigDecimal()).as("amount: %s", row[0])
+                    .isEqualTo(new BigDecimal(row[1]));
+        }
+    }
+
+    @Test
+    void rejectsTextThatIsNotAWholeAmount() {
+        for (String text : new String[]{"", " ", "-", ".", "1,23", "1234,567", "12.50 CR", "1,234+", "1.2.3", "abc",
+                "--1", "1,234,56"}) {
+            assertThatThrownBy(() -> MoneyParser.parse(text)).as("amount: %s", text)
+                    .isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    void failsOnAmountsPastTheRangeOfALong() {
+        assertThatThrownBy(() -> MoneyParser.find("TOTAL 92233720368547758.08"))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MoneyParser.parse("99,999,999,999,999,999,999"))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
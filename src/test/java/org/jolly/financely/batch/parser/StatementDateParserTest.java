@@ -0,0 +1,215 @@
+package org.jolly.financely.batch.parser;
+
+import org.jolly.financely.batch.layout.BankLayout;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.jolly.financely.constant.Bank;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks {@link StatementDateParser} against the {@link DateTimeFormatter} probing of the first line it replaced, and
+ * the year it takes from the statement date.
+ */
+class StatementDateParserTest {
+    private static final int YEAR = 2024;
+    private static final String[] MONTH_NAMES = {"Jan", "FEB", "mar", "Apr", "MAY", "jun", "Jul", "Aug", "SEP",
+            "Oct", "Nov", "DEC", "Foo", "Ja"};
+    private static final String[] RESTS = {"", " ", " GRAB PAY 12.00", "5 TRANSFER", "/2024 X", "A"};
+
+    /**
+     * Formatter and date lengths each bank's processor probed the first line with.
+     */
+    private record Baseline(DateTimeFormatter formatter, int min, Integer max) {
+        StatementDateParser.ParsedDate parse(String line) {
+            if (max == null) {
+                return parse(line, min);
+            }
+            for (int length = min; length <= max; length++) {
+                final StatementDateParser.ParsedDate parsed = parse(line, length);
+                if (parsed != null) {
+                    return parsed;
+                }
+            }
+            return null;
+        }
+
+        private StatementDateParser.ParsedDate parse(String line, int length) {
+            if (line.length() < length) {
+                return null;
+            }
+            try {
+                return new StatementDateParser.ParsedDate(LocalDate.parse(line.substring(0, length), formatter), length);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    @Test
+    void parsesTheDatesOfEachLayoutAsTheBaselineFormatter() throws IOException {
+        final Map<Bank, Baseline> baselines = new EnumMap<>(Bank.class);
+        baselines.put(Bank.UOB, new Baseline(withYear("dd MMM"), 6, null));
+        baselines.put(Bank.GXB, new Baseline(withYear("d MMM"), 5, 6));
+        baselines.put(Bank.CIMB, new Baseline(DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.ENGLISH), 10, null));
+        baselines.put(Bank.MBB, new Baseline(DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.ENGLISH), 10, null));
+        baselines.put(Bank.TNG, new Baseline(DateTimeFormatter.ofPattern("d/M/yyyy", Locale.ENGLISH), 8, 10));
+
+        final Map<Bank, BankLayout> layouts = new LayoutRegistry(new DefaultResourceLoader(), "classpath:layouts/")
+                .layouts().byBank();
+        assertThat(layouts.keySet()).isEqualTo(baselines.keySet());
+        final List<String> lines = lines();
+        layouts.forEach((bank, layout) -> {
+            final Baseline baseline = baselines.get(bank);
+            int dated = 0;
+            for (String line : lines) {
+                final StatementDateParser.ParsedDate expected = baseline.parse(line);
+                assertThat(layout.dateParser().parse(line, YEAR))
+                        .as("date of: %s by: %s", line, bank)
+                        .isEqualTo(expected);
+                dated += expected != null ? 1 : 0;
+            }
+            assertThat(dated).as("lines dated by: %s", bank).isGreaterThan(1_000);
+        });
+    }
+
+    @Test
+    void parsesTwoDigitYearsAsTheBaselineFormatter() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("dd/MM/yy", Locale.ENGLISH);
+        final Baseline baseline = new Baseline(DateTimeFormatter.ofPattern("dd/MM/yy", Locale.ENGLISH), 8, null);
+        for (String line : lines()) {
+            assertThat(parser.parse(line, YEAR)).as("date of: %s", line).isEqualTo(baseline.parse(line));
+        }
+        assertThat(parser.parse("05/03/99", YEAR).date()).isEqualTo(LocalDate.of(2099, 3, 5));
+        assertThat(parser.parse("29/02/23", YEAR).date()).isEqualTo(LocalDate.of(2023, 2, 28));
+    }
+
+    @Test
+    void parsesStatementDatesAsTheBaselineFormatter() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("d MMM yyyy", Locale.ENGLISH);
+        final DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern("d MMM yyyy")
+                .toFormatter(Locale.ENGLISH);
+        for (int day = 1; day <= 31; day++) {
+            for (String month : MONTH_NAMES) {
+                for (int year : new int[]{2023, 2024}) {
+                    final String date = day + " " + month + " " + year;
+                    LocalDate expected;
+                    try {
+                        expected = LocalDate.parse(date, formatter);
+                    } catch (DateTimeParseException e) {
+                        expected = null;
+                    }
+                    final StatementDateParser.ParsedDate parsed = parser.parse(date, 0);
+                    assertThat(parsed == null ? null : parsed.date()).as("date of: %s", date).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void datesDecemberRowsOfAJanuaryStatementInTheYearBefore() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("dd MMM", Locale.ENGLISH);
+        final LocalDate statementDate = LocalDate.of(2025, 1, 15);
+        assertThat(parser.parse("28 DEC SHOPEE 12.00", statementDate).date()).isEqualTo(LocalDate.of(2024, 12, 28));
+        assertThat(parser.parse("31 Dec", statementDate).date()).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(parser.parse("02 JAN GRAB 8.00", statementDate).date()).isEqualTo(LocalDate.of(2025, 1, 2));
+        // a row after the statement date in its month stays in its year
+        assertThat(parser.parse("20 Jan", statementDate).date()).isEqualTo(LocalDate.of(2025, 1, 20));
+        assertThat(parser.parse("15 Dec", LocalDate.of(2024, 12, 31)).date()).isEqualTo(LocalDate.of(2024, 12, 15));
+    }
+
+    @Test
+    void ignoresTheStatementDateWhenThePatternHasAYear() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("dd/MM/yyyy", Locale.ENGLISH);
+        assertThat(parser.hasYear()).isTrue();
+        assertThat(parser.parse("28/12/2024 X", LocalDate.of(2025, 1, 15)).date()).isEqualTo(LocalDate.of(2024, 12, 28));
+    }
+
+    @Test
+    void clampsLeapDaysAfterTheYearIsSettled() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("d MMM", Locale.ENGLISH);
+        assertThat(parser.parse("29 Feb", LocalDate.of(2024, 3, 10)).date()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(parser.parse("29 Feb", LocalDate.of(2025, 3, 10)).date()).isEqualTo(LocalDate.of(2025, 2, 28));
+        // the statement is of a year after a leap year, the row of the leap year
+        assertThat(parser.parse("29 Feb", LocalDate.of(2025, 1, 10)).date()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(parser.parse("30 Feb", 2024).date()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(parser.parse("31 Apr", 2024).date()).isEqualTo(LocalDate.of(2024, 4, 30));
+        assertThat(parser.parse("32 Jan", 2024)).isNull();
+        assertThat(parser.parse("0 Jan", 2024)).isNull();
+    }
+
+    @Test
+    void keepsTheCachedDatesOfEachYearApart() {
+        final StatementDateParser parser = StatementDateParser.ofPattern("d MMM", Locale.ENGLISH);
+        for (int year = 2000; year < 2100; year++) {
+            assertThat(parser.parse("29 Feb", year).date()).isEqualTo(LocalDate.of(year, 2, 1).withDayOfMonth(
+                    LocalDate.of(year, 2, 1).lengthOfMonth()));
+            assertThat(parser.parse("1 Mar", year).date()).isEqualTo(LocalDate.of(year, 3, 1));
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedPatterns() {
+        assertThatThrownBy(() -> StatementDateParser.ofPattern("dd MMMM", Locale.ENGLISH))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatementDateParser.ofPattern("yyy-MM-dd", Locale.ENGLISH))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DateTimeFormatter withYear(String pattern) {
+        return new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern(pattern)
+                .parseDefaulting(ChronoField.YEAR, YEAR)
+                .toFormatter(Locale.ENGLISH);
+    }
+
+    /**
+     * @return first lines with dates in the shapes of all the patterns, including invalid days and months
+     */
+    private static List<String> lines() {
+        final List<String> lines = new ArrayList<>();
+        for (int day = 0; day <= 32; day++) {
+            final List<String> days = day < 10 ? List.of(String.valueOf(day), "0" + day) : List.of(String.valueOf(day));
+            for (String d : days) {
+                for (int month = 0; month <= 13; month++) {
+                    final List<String> months = month < 10
+                            ? List.of(String.valueOf(month), "0" + month)
+                            : List.of(String.valueOf(month));
+                    for (String m : months) {
+                        for (String year : new String[]{"2024", "2023", "24", "202"}) {
+                            for (String rest : RESTS) {
+                                lines.add(d + "/" + m + "/" + year + rest);
+                            }
+                        }
+                    }
+                }
+                for (String month : MONTH_NAMES) {
+                    for (String rest : RESTS) {
+                        lines.add(d + " " + month + rest);
+                    }
+                }
+            }
+        }
+        lines.add("");
+        lines.add("Jan 12");
+        lines.add(" 12 Jan");
+        return lines;
+    }
+}
@@ -0,0 +1,174 @@
+package org.jolly.financely.batch.reader;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.jolly.financely.batch.extractor.DefaultLineExtractor;
+import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.launch.JobLaunchService;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.model.ProcessedFile;
+import org.jolly.financely.model.RawTransaction;
+import org.jolly.financely.repository.ProcessedFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reads a statement with the job of another bank, then with the job of its bank, as when a statement is uploaded
+ * with the wrong bank and again with the right one, and as the bank given on upload.
+ */
+class PdfReaderBankTest {
+    @TempDir
+    Path tempDir;
+    private final List<ProcessedFile> processedFiles = new ArrayList<>();
+    private ProcessedFileRegistry processedFileRegistry;
+    private Path statement;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final ProcessedFileRepository repository = mock(ProcessedFileRepository.class);
+        when(repository.findByPath(anyString())).thenAnswer(invocation -> processedFiles.stream()
+                .filter(file -> file.getPath().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(repository.existsByDigest(anyString())).thenAnswer(invocation -> processedFiles.stream()
+                .anyMatch(file -> file.getDigest().equals(invocation.getArgument(0))));
+        when(repository.save(any(ProcessedFile.class))).thenAnswer(invocation -> {
+            final ProcessedFile file = invocation.getArgument(0);
+            if (!processedFiles.contains(file)) {
+                processedFiles.add(file);
+            }
+            return file;
+        });
+        processedFileRegistry = new ProcessedFileRegistry(repository, true);
+
+        statement = tempDir.resolve("statement.pdf");
+        writeStatement(statement, "CIMB Bank Berhad");
+    }
+
+    @AfterEach
+    void tearDown() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void readsFileSkippedAsAnotherBanksWithTheJobOfItsBank() throws Exception {
+        final StepExecution uobStep = step(1L);
+        assertThat(readAll(Bank.UOB)).isEmpty();
+        assertThat(processedFiles).isEmpty();
+        assertThat(uobStep.getExecutionContext().getInt(ProcessedFileRegistry.SKIPPED_FILES_KEY, 0)).isEqualTo(1);
+        assertThat(uobStep.getExecutionContext().getInt(ProcessedFileRegistry.PROCESSED_FILES_KEY, 0)).isZero();
+
+        final StepExecution cimbStep = step(2L);
+        assertThat(readAll(Bank.CIMB)).hasSize(3)
+                .extracting(RawTransaction::getFileDigest)
+                .containsOnly(ProcessedFileRegistry.digest(new FileSystemResource(statement)));
+        assertThat(processedFiles).hasSize(1);
+        assertThat(cimbStep.getExecutionContext().getInt(ProcessedFileRegistry.SKIPPED_FILES_KEY, 0)).isZero();
+        assertThat(cimbStep.getExecutionContext().getInt(ProcessedFileRegistry.PROCESSED_FILES_KEY, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void skipsFileOfAnotherBankOnRestart() throws Exception {
+        step(1L);
+        final ExecutionContext executionContext = new ExecutionContext();
+        final PdfReader reader = reader(Bank.UOB);
+        reader.open(executionContext);
+        assertThat(reader.read()).isNull();
+        reader.update(executionContext);
+        reader.close();
+
+        final PdfReader restarted = reader(Bank.UOB);
+        restarted.open(executionContext);
+        assertThat(restarted.read()).isNull();
+        restarted.close();
+        assertThat(processedFiles).isEmpty();
+    }
+
+    @Test
+    void readsFileOfAnotherBankAsTheBankGivenOnUpload() throws Exception {
+        final StepExecution uobStep = step(1L, new JobParametersBuilder()
+                .addString(JobLaunchService.BANK_PARAMETER, Bank.UOB.name())
+                .toJobParameters());
+        assertThat(readAll(Bank.UOB)).hasSize(3);
+        assertThat(processedFiles).hasSize(1);
+        assertThat(uobStep.getExecutionContext().getInt(ProcessedFileRegistry.SKIPPED_FILES_KEY, 0)).isZero();
+    }
+
+    private List<RawTransaction> readAll(Bank bank) throws Exception {
+        final PdfReader reader = reader(bank);
+        reader.open(new ExecutionContext());
+        final List<RawTransaction> items = new ArrayList<>();
+        RawTransaction item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+
+    private PdfReader reader(Bank bank) {
+        final PdfReader reader = new PdfReader(processedFileRegistry, BatchMetrics.noop(), new PdfLoader(), null, null,
+                new BankDetector(new PdfLoader(), 0.6), null);
+        final LineExtractor lineExtractor = new DefaultLineExtractor();
+        lineExtractor.dateRegex("^[0-9]{2} [a-zA-Z]{3}.*");
+        reader.setLineExtractor(lineExtractor);
+        reader.setBank(bank);
+        reader.setResource(new FileSystemResource(statement));
+        return reader;
+    }
+
+    private static StepExecution step(long jobExecutionId) {
+        return step(jobExecutionId, new JobParameters());
+    }
+
+    private static StepExecution step(long jobExecutionId, JobParameters jobParameters) {
+        StepSynchronizationManager.close();
+        final StepExecution stepExecution = new StepExecution("step",
+                new JobExecution(new JobInstance(jobExecutionId, "job"), jobExecutionId, jobParameters));
+        StepSynchronizationManager.register(stepExecution);
+        return stepExecution;
+    }
+
+    private static void writeStatement(Path file, String header) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            final PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
+                content.newLineAtOffset(50, 700);
+                content.setLeading(14);
+                for (String line : List.of(header, "01 JAN SHOP A 10.00", "02 JAN SHOP B 20.00", "03 JAN SHOP C 30.00")) {
+                    content.showText(line);
+                    content.newLine();
+                }
+                content.endText();
+            }
+            document.save(file.toFile());
+        }
+    }
+}
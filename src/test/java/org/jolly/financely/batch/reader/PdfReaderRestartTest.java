@@ -0,0 +1,227 @@
+package org.jolly.financely.batch.reader;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.jolly.financely.batch.extractor.DefaultLineExtractor;
+import org.jolly.financely.batch.extractor.LineExtractor;
+import org.jolly.financely.batch.metrics.BatchMetrics;
+import org.jolly.financely.model.RawTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kills a read of a statement mid-file, after some chunks were committed and with one in flight, and restarts it
+ * from the execution context of the last commit, as a step would.
+ */
+class PdfReaderRestartTest {
+    private static final int PAGES = 6;
+    private static final int CHUNK_SIZE = 5;
+    @TempDir
+    Path tempDir;
+    private Path stagingDir;
+    private Path statement;
+    private List<String> expected;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stagingDir = tempDir.resolve("staging");
+        statement = tempDir.resolve("uob-statement.pdf");
+        writeStatement(statement);
+
+        final PdfReader reader = reader(null);
+        reader.open(new ExecutionContext());
+        expected = new ArrayList<>();
+        RawTransaction item;
+        while ((item = reader.read()) != null) {
+            expected.add(describe(item));
+        }
+        reader.close();
+        assertThat(expected).hasSize(PAGES * 8);
+    }
+
+    @Test
+    void resumesFromStagedOffsetWithoutThePdf() throws Exception {
+        final StagingStore stagingStore = stagingStore();
+        final List<String> committed = new ArrayList<>();
+        final ExecutionContext checkpoint = killAfterChunks(reader(stagingStore), 3, committed);
+        assertThat(checkpoint.getString("staging.file")).startsWith(stagingDir.toString());
+
+        // the PDF is no longer needed once its transactions are staged
+        Files.delete(statement);
+        committed.addAll(readToEnd(reader(stagingStore), checkpoint));
+
+        assertThat(committed).containsExactlyElementsOf(expected);
+        assertThat(stagedFiles()).isEmpty();
+    }
+
+    @Test
+    void stripsFromSavedPageWhenStagedFileIsGone() throws Exception {
+        final StagingStore stagingStore = stagingStore();
+        final List<String> committed = new ArrayList<>();
+        final ExecutionContext checkpoint = killAfterChunks(reader(stagingStore), 4, committed);
+
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        committed.addAll(readToEnd(reader(stagingStore), checkpoint));
+
+        assertThat(committed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void restartsAfterEveryChunk() throws Exception {
+        final StagingStore stagingStore = stagingStore();
+        final List<String> committed = new ArrayList<>();
+        ExecutionContext checkpoint = new ExecutionContext();
+        while (committed.size() < expected.size()) {
+            checkpoint = killAfterChunks(reader(stagingStore), checkpoint, 1, committed);
+        }
+
+        assertThat(committed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void readsCachedTextWithoutLoadingThePdf() throws Exception {
+        final TextCache textCache = new TextCache(tempDir.resolve("text"), DataSize.ofMegabytes(1), true);
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final BatchMetrics batchMetrics = new BatchMetrics(meterRegistry);
+        assertThat(readToEnd(reader(null, textCache, batchMetrics), new ExecutionContext()))
+                .containsExactlyElementsOf(expected);
+
+        final List<String> committed = new ArrayList<>();
+        final ExecutionContext checkpoint = killAfterChunks(reader(null, textCache, batchMetrics), 3, committed);
+        committed.addAll(readToEnd(reader(null, textCache, batchMetrics), checkpoint));
+
+        assertThat(committed).containsExactlyElementsOf(expected);
+        assertThat(meterRegistry.get("financely.pdf.load").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("financely.pdf.text.cache").tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    private ExecutionContext killAfterChunks(PdfReader reader, int chunks, List<String> committed) throws Exception {
+        return killAfterChunks(reader, new ExecutionContext(), chunks, committed);
+    }
+
+    /**
+     * Commits the given number of chunks, then reads part of another and stops without closing the reader.
+     *
+     * @return the execution context as of the last commit
+     */
+    private ExecutionContext killAfterChunks(PdfReader reader, ExecutionContext executionContext, int chunks,
+                                             List<String> committed) throws Exception {
+        reader.open(executionContext);
+        ExecutionContext checkpoint = new ExecutionContext(executionContext);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final List<String> items = new ArrayList<>();
+            RawTransaction item;
+            while (items.size() < CHUNK_SIZE && (item = reader.read()) != null) {
+                items.add(describe(item));
+            }
+            reader.update(executionContext);
+            committed.addAll(items);
+            checkpoint = new ExecutionContext(executionContext);
+        }
+        // a chunk in flight when the process dies is rolled back
+        reader.read();
+        reader.read();
+        return checkpoint;
+    }
+
+    private List<String> readToEnd(PdfReader reader, ExecutionContext executionContext) throws Exception {
+        final List<String> items = new ArrayList<>();
+        reader.open(executionContext);
+        RawTransaction item;
+        while ((item = reader.read()) != null) {
+            items.add(describe(item));
+        }
+        reader.update(executionContext);
+        reader.close();
+        return items;
+    }
+
+    private PdfReader reader(StagingStore stagingStore) {
+        return reader(stagingStore, null, BatchMetrics.noop());
+    }
+
+    private PdfReader reader(StagingStore stagingStore, TextCache textCache, BatchMetrics batchMetrics) {
+        final PdfReader reader = new PdfReader(null, batchMetrics, new PdfLoader(), null, stagingStore, null, textCache);
+        final LineExtractor lineExtractor = new DefaultLineExtractor();
+        lineExtractor.dateRegex("^[0-9]{2} [a-zA-Z]{3}.*");
+        lineExtractor.startReadingText(".*Transaction Date.*");
+        lineExtractor.endReadingText(".*END OF STATEMENT.*");
+        reader.setLineExtractor(lineExtractor);
+        reader.setResource(new FileSystemResource(statement));
+        return reader;
+    }
+
+    private StagingStore stagingStore() throws IOException {
+        return new StagingStore(stagingDir, Duration.ofDays(7), true);
+    }
+
+    private List<Path> stagedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            return files.toList();
+        }
+    }
+
+    private static String describe(RawTransaction item) {
+        return item.getPage() + ":" + item.getLine() + " " + item.getLines();
+    }
+
+    /**
+     * Eight transactions a page, the last of each page continuing on the next.
+     */
+    private static void writeStatement(Path file) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int page = 1; page <= PAGES; page++) {
+                final List<String> lines = new ArrayList<>();
+                if (page == 1) {
+                    lines.add("Transaction Date");
+                } else {
+                    lines.add("continued from page " + (page - 1));
+                }
+                for (int i = 1; i <= 8; i++) {
+                    lines.add("%02d JAN SHOP %d-%d %d.00".formatted(i, page, i, page * 10 + i));
+                }
+                if (page == PAGES) {
+                    lines.add("END OF STATEMENT");
+                }
+
+                final PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
+                    content.newLineAtOffset(50, 700);
+                    content.setLeading(14);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.jolly.financely.batch.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the text of pages is cached and read back per key, replaced when cached again, and evicted least recently
+ * used first once the files take more than the maximum size.
+ */
+class TextCacheTest {
+    private static final TextCache.Key A = new TextCache.Key("aaaa", "3.0.2", false);
+    private static final TextCache.Key B = new TextCache.Key("bbbb", "3.0.2", false);
+    private static final TextCache.Key C = new TextCache.Key("cccc", "3.0.2", false);
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsBackTheCachedText() throws IOException {
+        final TextCache cache = cache(tempDir, DataSize.ofMegabytes(1));
+        // longer than writeUTF allows, and not only ASCII
+        final String longPage = "Transaksi RM 12.50 é€ ".repeat(5_000);
+        final TextCache.CachedText text = new TextCache.CachedText(3, "Producer: UOB", List.of("page 1", longPage));
+        cache.put(A, text);
+
+        assertThat(cache.get(A)).isEqualTo(text);
+        assertThat(cache.get(B)).isNull();
+        assertThat(cache.get(new TextCache.Key("aaaa", "3.0.2", true))).isNull();
+        assertThat(cache.get(new TextCache.Key("aaaa", "3.0.3", false))).isNull();
+        final TextCache.CachedText noPages = new TextCache.CachedText(0, "", List.of());
+        cache.put(B, noPages);
+        assertThat(cache.get(B)).isEqualTo(noPages);
+    }
+
+    @Test
+    void replacesTextCachedAgainUnderTheSameKey() throws IOException {
+        final TextCache cache = cache(tempDir, DataSize.ofMegabytes(1));
+        cache.put(A, text(1, 1));
+        final TextCache.CachedText more = text(3, 2);
+        cache.put(A, more);
+
+        assertThat(cache.get(A)).isEqualTo(more);
+        assertThat(files(tempDir)).containsExactly(tempDir.resolve(A.fileName()));
+    }
+
+    @Test
+    void countsTheSizeOfAReplacedFileOnce() throws IOException {
+        final long a = sizeOf(A, text(2, 1));
+        final long b = sizeOf(B, text(2, 2));
+        // both files fit, as long as the replaced one is not counted along with the one replacing it
+        final Path fits = Files.createDirectory(tempDir.resolve("fits"));
+        final TextCache cache = cache(fits, DataSize.ofBytes(a + b));
+        cache.put(A, text(2, 1));
+        cache.put(A, text(2, 1));
+        cache.put(B, text(2, 2));
+        assertThat(files(fits)).containsExactlyInAnyOrder(fits.resolve(A.fileName()), fits.resolve(B.fileName()));
+
+        // one byte less and the least recently used one goes
+        final Path full = Files.createDirectory(tempDir.resolve("full"));
+        final TextCache smaller = cache(full, DataSize.ofBytes(a + b - 1));
+        smaller.put(A, text(2, 1));
+        smaller.put(A, text(2, 1));
+        touch(full, A, Duration.ofHours(2));
+        smaller.put(B, text(2, 2));
+        assertThat(files(full)).containsExactly(full.resolve(B.fileName()));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedFiles() throws IOException {
+        final long size = sizeOf(A, text(2, 1));
+        final TextCache cache = cache(tempDir, DataSize.ofBytes(size * 2 + size / 2));
+        cache.put(A, text(2, 1));
+        cache.put(B, text(2, 2));
+        touch(A, Duration.ofHours(3));
+        touch(B, Duration.ofHours(2));
+        // read, so used more recently than B
+        assertThat(cache.get(A)).isNotNull();
+
+        cache.put(C, text(2, 3));
+        assertThat(files(tempDir)).containsExactlyInAnyOrder(tempDir.resolve(A.fileName()),
+                tempDir.resolve(C.fileName()));
+        assertThat(cache.get(B)).isNull();
+        assertThat(cache.get(A)).isEqualTo(text(2, 1));
+        assertThat(cache.get(C)).isEqualTo(text(2, 3));
+    }
+
+    @Test
+    void evictsOnStartupDownToTheMaximumSize() throws IOException {
+        final TextCache cache = cache(tempDir, DataSize.ofMegabytes(1));
+        cache.put(A, text(2, 1));
+        cache.put(B, text(2, 2));
+        cache.put(C, text(2, 3));
+        touch(A, Duration.ofHours(1));
+        touch(B, Duration.ofHours(3));
+        touch(C, Duration.ofHours(2));
+
+        cache(tempDir, DataSize.ofBytes(Files.size(tempDir.resolve(A.fileName())) + 1));
+        assertThat(files(tempDir)).containsExactly(tempDir.resolve(A.fileName()));
+    }
+
+    @Test
+    void deletesFilesThatCannotBeRead() throws IOException {
+        final TextCache cache = cache(tempDir, DataSize.ofMegabytes(1));
+        final Path file = tempDir.resolve(A.fileName());
+
+        Files.writeString(file, "not gzipped");
+        assertThat(cache.get(A)).isNull();
+        assertThat(file).doesNotExist();
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("not a text cache file".getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(cache.get(A)).isNull();
+        assertThat(file).doesNotExist();
+
+        // cut short, e.g. by a full disk
+        cache.put(A, text(3, 1));
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThat(cache.get(A)).isNull();
+        assertThat(file).doesNotExist();
+
+        cache.put(A, text(3, 1));
+        assertThat(cache.get(A)).isEqualTo(text(3, 1));
+    }
+
+    @Test
+    void cachesNothingWhenDisabled() throws IOException {
+        final Path directory = tempDir.resolve("disabled");
+        final TextCache cache = new TextCache(directory, DataSize.ofMegabytes(1), false);
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(directory).doesNotExist();
+    }
+
+    private long sizeOf(TextCache.Key key, TextCache.CachedText text) throws IOException {
+        final Path directory = Files.createTempDirectory(tempDir, "size-");
+        cache(directory, DataSize.ofMegabytes(1)).put(key, text);
+        return Files.size(directory.resolve(key.fileName()));
+    }
+
+    private void touch(TextCache.Key key, Duration ago) throws IOException {
+        touch(tempDir, key, ago);
+    }
+
+    private static void touch(Path directory, TextCache.Key key, Duration ago) throws IOException {
+        Files.setLastModifiedTime(directory.resolve(key.fileName()), FileTime.from(Instant.now().minus(ago)));
+    }
+
+    private static TextCache cache(Path directory, DataSize maxSize) throws IOException {
+        return new TextCache(directory, maxSize, true);
+    }
+
+    /**
+     * @return text of pages of random words, which gzip does not shrink much
+     */
+    private static TextCache.CachedText text(int pages, long seed) {
+        final Random random = new Random(seed);
+        final String[] texts = new String[pages];
+        for (int i = 0; i < pages; i++) {
+            final StringBuilder page = new StringBuilder();
+            for (int j = 0; j < 500; j++) {
+                page.append(Integer.toString(random.nextInt(Integer.MAX_VALUE), 36)).append(' ');
+            }
+            texts[i] = page.toString();
+        }
+        return new TextCache.CachedText(pages, "Producer: " + seed, List.of(texts));
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.jolly.financely.batch.rule;
+
+import org.jolly.financely.batch.extractor.LineRules;
+import org.jolly.financely.batch.layout.BankLayout;
+import org.jolly.financely.batch.layout.LayoutRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link RuleSet#firstMatch} against testing each rule with {@link String#matches} in declaration order, across
+ * literal, merged and separate rules.
+ */
+class RuleSetTest {
+    private static final String[] FRAGMENTS = {
+            "", " ", "  ", "\n", "\r\n", "CR", " CR", "+", "-", ".", ",", "/", "(", ")", "*", "a", "1", "12", "123",
+            "1,234", "1,234.56", "12.50", "12/03/2024", "1/3/2024", "03 MAR", "3 Mar", "SUB-TOTAL", "PREVIOUS BAL",
+            "Transaction Date", "END OF STATEMENT", "End of Statement", "Ref No", "ENTRY DATE", "ENDING BALANCE",
+            "SALARY", "CREDIT INTEREST", "Interest earned", "Page ", "Important Notice", "DUITNOW_RECEI",
+            "Quick Reload Payment (via ", "*This is a system generated email.", "abab", "ab", "xyz", "x.y", "A*B"
+    };
+
+    @Test
+    void matchesTheFirstRuleOfEachShippedLayout() throws IOException {
+        final List<String> inputs = inputs();
+        for (BankLayout layout : new LayoutRegistry(new DefaultResourceLoader(), "classpath:layouts/")
+                .layouts().byBank().values()) {
+            final LineRules lineRules = layout.lineRules();
+            for (RuleSet ruleSet : List.of(lineRules.date(), lineRules.start(), lineRules.end(), lineRules.skip(),
+                    layout.creditTransfer(), layout.itemsToSkip())) {
+                assertFirstMatch(ruleSet, inputs);
+            }
+        }
+    }
+
+    @Test
+    void matchesTheFirstRuleOfAllShippedRulesTogether() throws IOException {
+        final List<String> rules = new ArrayList<>();
+        for (BankLayout layout : new LayoutRegistry(new DefaultResourceLoader(), "classpath:layouts/")
+                .layouts().byBank().values()) {
+            final LineRules lineRules = layout.lineRules();
+            for (RuleSet ruleSet : List.of(lineRules.date(), lineRules.start(), lineRules.end(), lineRules.skip(),
+                    layout.creditTransfer(), layout.itemsToSkip())) {
+                for (int i = 0; i < ruleSet.size(); i++) {
+                    rules.add(ruleSet.rule(i));
+                }
+            }
+        }
+        assertFirstMatch(RuleSet.compile(rules.toArray(String[]::new)), inputs());
+    }
+
+    @Test
+    void matchesTheFirstRuleOfMixedRules() {
+        final List<String> inputs = inputs();
+        final String literal = ".*CR.*";
+        final String startsWith = "^ab.*";
+        final String equals = "SALARY";
+        final String merged = "[0-9,]+\\.[0-9]{2}\\+?";
+        final String mergedGroup = "(a|b)+";
+        final String backReference = "(ab)\\1";
+        final String quoted = "\\Qx.y\\E";
+        final String namedGroup = "(?<star>A)\\*B";
+        final String[][] ruleSets = {
+                {literal, merged, backReference, quoted, namedGroup},
+                {backReference, literal, merged, startsWith},
+                {merged, quoted, literal, mergedGroup},
+                {quoted, namedGroup, mergedGroup, startsWith, equals, merged},
+                {mergedGroup, backReference, startsWith, literal},
+                {startsWith, mergedGroup, backReference},
+                {".*", backReference, merged},
+                {"(?i)sub-total", ".*SUB-TOTAL.*", "(?<!\\d)\\d{1,3}(?:,\\d{3})+"},
+        };
+        for (String[] rules : ruleSets) {
+            assertFirstMatch(RuleSet.compile(rules), inputs);
+        }
+    }
+
+    @Test
+    void takesTheEarliestRuleAcrossLiteralMergedAndSeparateRules() {
+        final RuleSet rules = RuleSet.compile("(ab)\\1", "[a-z]+", ".*b.*");
+        assertThat(rules.firstMatch("abab")).isZero();
+        assertThat(rules.firstMatch("ab")).isEqualTo(1);
+        assertThat(rules.firstMatch("AbC")).isEqualTo(2);
+        assertThat(rules.firstMatch("ABC")).isEqualTo(-1);
+
+        final RuleSet literalFirst = RuleSet.compile(".*b.*", "[a-z]+", "(ab)\\1");
+        assertThat(literalFirst.firstMatch("abab")).isZero();
+        assertThat(literalFirst.firstMatch("xyz")).isEqualTo(1);
+    }
+
+    @Test
+    void matchesInputWithLineTerminatorsAsRegex() {
+        final RuleSet rules = RuleSet.compile(".*CR.*", "(?s).*CR.*");
+        assertThat(rules.firstMatch("12.50 CR")).isZero();
+        assertThat(rules.firstMatch("12.50\nCR")).isEqualTo(1);
+        assertThat(rules.matches("12.50\n")).isFalse();
+    }
+
+    @Test
+    void matchesNothingWithoutRules() {
+        assertThat(RuleSet.compile().firstMatch("anything")).isEqualTo(-1);
+        assertThat(RuleSet.compile((String[]) null).isEmpty()).isTrue();
+    }
+
+    private static void assertFirstMatch(RuleSet ruleSet, List<String> inputs) {
+        for (String input : inputs) {
+            assertThat(ruleSet.firstMatch(input))
+                    .as("first match of: %s in: %s", input, ruleSet)
+                    .isEqualTo(firstMatch(ruleSet, input));
+            assertThat(ruleSet.firstMatch(new StringBuilder(input)))
+                    .as("first match of: %s as a char sequence in: %s", input, ruleSet)
+                    .isEqualTo(firstMatch(ruleSet, input));
+        }
+    }
+
+    private static int firstMatch(RuleSet ruleSet, String input) {
+        for (int i = 0; i < ruleSet.size(); i++) {
+            if (input.matches(ruleSet.rule(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return every fragment and pair of fragments, and random lines of up to six fragments
+     */
+    private static List<String> inputs() {
+        final Set<String> inputs = new LinkedHashSet<>();
+        for (String first : FRAGMENTS) {
+            inputs.add(first);
+            for (String second : FRAGMENTS) {
+                inputs.add(first + second);
+            }
+        }
+        final Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            final StringBuilder line = new StringBuilder();
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                line.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            inputs.add(line.toString());
+        }
+        return new ArrayList<>(inputs);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jolly.financely.batch.writer;
+
+import org.jolly.financely.constant.Bank;
+import org.jolly.financely.model.Money;
+import org.jolly.financely.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks {@link TransactionJdbcWriter} leaves transactions with a stored fingerprint to the database to skip, and
+ * binds the fingerprint of each.
+ */
+class TransactionJdbcWriterTest {
+    private static final Currency MYR = Currency.getInstance("MYR");
+    private JdbcTemplate jdbcTemplate;
+    private TransactionJdbcWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenReturn((long) Transaction.ID_ALLOCATION_SIZE, 2L * Transaction.ID_ALLOCATION_SIZE);
+        writer = new TransactionJdbcWriter(jdbcTemplate);
+    }
+
+    @Test
+    void insertsSkippingStoredFingerprints() throws Exception {
+        final List<Transaction> transactions = List.of(transaction("GRAB PAY", 1), transaction("SHOPEE", 2));
+        final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<BatchPreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        // the second transaction was stored by an earlier load
+        when(jdbcTemplate.batchUpdate(sql.capture(), setter.capture())).thenReturn(new int[]{1, 0});
+
+        writer.write(new Chunk<>(transactions));
+
+        assertThat(sql.getValue()).endsWith("on conflict (fingerprint) do nothing");
+        assertThat(setter.getValue().getBatchSize()).isEqualTo(2);
+        for (int i = 0; i < transactions.size(); i++) {
+            final PreparedStatement ps = mock(PreparedStatement.class);
+            setter.getValue().setValues(ps, i);
+            verify(ps).setLong(1, i + 1);
+            verify(ps).setString(12, "statement.pdf");
+            verify(ps).setString(18, transactions.get(i).getFingerprint());
+        }
+    }
+
+    @Test
+    void insertsTheSameStatementUnderAnotherNameWithTheSameFingerprints() throws Exception {
+        final Transaction first = transaction("GRAB PAY", 1);
+        final Transaction again = new Transaction.Builder("copy of statement.pdf", first.getDate(), Bank.UOB,
+                "GRAB PAY")
+                .debit(Money.of(new BigDecimal("12.50"), MYR))
+                .fileDigest("9f86d081")
+                .position(1, 1)
+                .build();
+        final ArgumentCaptor<BatchPreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        when(jdbcTemplate.batchUpdate(anyString(), setter.capture())).thenReturn(new int[]{0});
+
+        writer.write(new Chunk<>(List.of(again)));
+
+        final PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, 0);
+        verify(ps).setString(18, first.getFingerprint());
+    }
+
+    @Test
+    void writesNothingForAnEmptyChunk() throws Exception {
+        writer.write(new Chunk<>());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+
+    private static Transaction transaction(String description, int line) {
+        return new Transaction.Builder("statement.pdf", LocalDate.of(2024, 3, 12), Bank.UOB, description)
+                .debit(Money.of(new BigDecimal("12.50"), MYR))
+                .fileDigest("9f86d081")
+                .position(1, line)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package org.jolly.financely.model;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the long-backed arithmetic of {@link Money} against {@link BigDecimal}, at and beyond the range of a long.
+ */
+class MoneyTest {
+    private static final Currency MYR = Currency.getInstance("MYR");
+    private static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    @BeforeAll
+    static void init() {
+        Money.init(MYR, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    void addsPastTheRangeOfALong() {
+        final Money sum = Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1));
+        assertThat(sum.getAmount()).isEqualTo(MAX.add(CENT));
+        assertThat(sum).isEqualTo(Money.of(MAX.add(CENT)));
+
+        final Money back = sum.minus(Money.ofMinor(1));
+        assertThat(back.getAmount()).isEqualTo(MAX);
+        assertThat(back).isEqualTo(Money.ofMinor(Long.MAX_VALUE)).hasSameHashCodeAs(Money.ofMinor(Long.MAX_VALUE));
+    }
+
+    @Test
+    void subtractsPastTheRangeOfALong() {
+        final Money difference = Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1));
+        assertThat(difference.getAmount()).isEqualTo(MIN.subtract(CENT));
+        assertThat(Money.ofMinor(Long.MAX_VALUE).minus(Money.ofMinor(Long.MIN_VALUE)).getAmount())
+                .isEqualTo(MAX.subtract(MIN));
+        assertThat(difference.plus(Money.ofMinor(1))).isEqualTo(Money.ofMinor(Long.MIN_VALUE));
+    }
+
+    @Test
+    void addsAmountsOfDifferentScalesPastTheRangeOfALong() {
+        // rescaling the units of the whole amount to cents overflows
+        final Money whole = Money.of(BigDecimal.valueOf(Long.MAX_VALUE / 10), MYR);
+        final Money cents = Money.of(new BigDecimal("0.05"), MYR);
+        assertThat(whole.plus(cents).getAmount())
+                .isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE / 10).add(new BigDecimal("0.05")));
+        assertThat(whole.minus(cents).getAmount())
+                .isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE / 10).subtract(new BigDecimal("0.05")));
+        assertThat(whole.gt(cents)).isTrue();
+        assertThat(cents.lt(whole)).isTrue();
+    }
+
+    @Test
+    void sumsPastTheRangeOfALong() {
+        final Money sum = Money.sum(List.of(Money.ofMinor(Long.MAX_VALUE), Money.ofMinor(Long.MAX_VALUE),
+                Money.of(new BigDecimal("1.5"))));
+        assertThat(sum.getAmount()).isEqualTo(MAX.add(MAX).add(new BigDecimal("1.50")));
+        assertThat(Money.sum(List.of(Money.of(new BigDecimal("1.5")), Money.ofMinor(25))))
+                .isEqualTo(Money.of(new BigDecimal("1.75")));
+    }
+
+    @Test
+    void multipliesPastTheRangeOfALong() {
+        for (long units : new long[]{Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE / 2 + 1, -1, 0}) {
+            for (int factor : new int[]{2, -1, -2, 0, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+                assertThat(Money.ofMinor(units).times(factor).getAmount())
+                        .as("%d * %d", units, factor)
+                        .isEqualTo(BigDecimal.valueOf(units, 2).multiply(BigDecimal.valueOf(factor)));
+            }
+        }
+        assertThat(Money.ofMinor(Long.MAX_VALUE).times(2).div(2)).isEqualTo(Money.ofMinor(Long.MAX_VALUE));
+    }
+
+    @Test
+    void dividesWithTheRoundingOfBigDecimal() {
+        final long[] dividends = {Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, 25, -25,
+                15, -15, 1, -1, 0, 7};
+        final int[] divisors = {2, -2, 3, -3, 10, -10, 4, 7, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (RoundingMode rounding : RoundingMode.values()) {
+            if (rounding == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend : dividends) {
+                for (int divisor : divisors) {
+                    final BigDecimal amount = BigDecimal.valueOf(dividend, 2);
+                    assertThat(Money.of(amount, MYR, rounding).div(divisor).getAmount())
+                            .as("%s / %d rounded %s", amount, divisor, rounding)
+                            .isEqualTo(amount.divide(BigDecimal.valueOf(divisor), rounding));
+                }
+            }
+        }
+    }
+
+    @Test
+    void dividesTheOneQuotientThatOverflows() {
+        final Money quotient = Money.ofMinor(Long.MIN_VALUE).div(-1);
+        assertThat(quotient.getAmount()).isEqualTo(MIN.negate());
+        assertThat(quotient).isEqualTo(Money.of(MIN.negate()));
+    }
+
+    @Test
+    void failsToDivideUnroundedWithUnnecessaryRounding() {
+        final Money money = Money.of(new BigDecimal("0.25"), MYR, RoundingMode.UNNECESSARY);
+        assertThat(money.div(5).getAmount()).isEqualTo(new BigDecimal("0.05"));
+        assertThatThrownBy(() -> money.div(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> money.div(0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void equalsAcrossLongAndBigDecimalAmounts() {
+        // created from BigDecimal, from minor units and as the result of long arithmetic
+        final Money fromBigDecimal = Money.of(new BigDecimal("12.34"));
+        final Money fromMinor = Money.ofMinor(1234);
+        final Money fromArithmetic = Money.ofMinor(1000).plus(Money.ofMinor(234));
+        assertThat(fromBigDecimal).isEqualTo(fromMinor).isEqualTo(fromArithmetic)
+                .hasSameHashCodeAs(fromMinor).hasSameHashCodeAs(fromArithmetic);
+
+        // past the range of a long, created from BigDecimal and as the result of falling back to it
+        final Money big = Money.of(MAX.add(MAX));
+        final Money overflowed = Money.ofMinor(Long.MAX_VALUE).times(2);
+        assertThat(big).isEqualTo(overflowed).hasSameHashCodeAs(overflowed);
+        assertThat(big).isNotEqualTo(Money.ofMinor(Long.MAX_VALUE));
+        assertThat(big.compareTo(Money.ofMinor(Long.MAX_VALUE))).isPositive();
+        assertThat(Money.ofMinor(Long.MAX_VALUE).compareTo(big)).isNegative();
+    }
+
+    @Test
+    void doesNotEqualTheSameAmountAtAnotherScale() {
+        final Money zero = Money.of(BigDecimal.ZERO);
+        final Money zeroCents = Money.ofMinor(0);
+        assertThat(zero).isNotEqualTo(zeroCents);
+        assertThat(zero.eq(zeroCents)).isTrue();
+        assertThat(zero.compareTo(zeroCents)).isZero();
+    }
+
+    @Test
+    void convertsToMinorUnits() {
+        assertThat(Money.of(new BigDecimal("12.3")).toMinorUnits()).isEqualTo(1230);
+        assertThat(Money.ofMinor(Long.MAX_VALUE).toMinorUnits()).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)).toMinorUnits())
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
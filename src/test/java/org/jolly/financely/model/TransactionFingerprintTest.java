@@ -0,0 +1,73 @@
+package org.jolly.financely.model;
+
+import org.jolly.financely.constant.Bank;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks what tells transactions apart in their {@link TransactionFingerprint}, and what does not.
+ */
+class TransactionFingerprintTest {
+    private static final Currency MYR = Currency.getInstance("MYR");
+    private static final String DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 12);
+
+    @Test
+    void identifiesTheFileByItsContentDigest() {
+        final Transaction transaction = transaction("statement.pdf", DIGEST).build();
+        // the same statement uploaded again is stored under another name
+        assertThat(transaction("a2e4ad9c.pdf", DIGEST).build().getFingerprint())
+                .isEqualTo(transaction.getFingerprint());
+        assertThat(transaction("statement.pdf", DIGEST.replace('9', '8')).build().getFingerprint())
+                .isNotEqualTo(transaction.getFingerprint());
+        assertThat(transaction.getFingerprint()).hasSize(TransactionFingerprint.LENGTH)
+                .isEqualTo(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, Money.of(new BigDecimal("12.50"), MYR),
+                        null, "GRAB PAY", 1, 4));
+    }
+
+    @Test
+    void identifiesTheFileByItsNameWithoutADigest() {
+        final String fingerprint = transaction("statement.pdf", null).build().getFingerprint();
+        assertThat(transaction("statement.pdf", null).build().getFingerprint()).isEqualTo(fingerprint);
+        assertThat(transaction("copy.pdf", null).build().getFingerprint()).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    void ignoresTheScaleOfAmountsAndTheCaseAndSpacingOfDescriptions() {
+        final String fingerprint = TransactionFingerprint.of(Bank.UOB, DIGEST, DATE,
+                Money.of(new BigDecimal("12.50"), MYR), null, "GRAB PAY", 1, 4);
+        assertThat(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, Money.of(new BigDecimal("12.5"), MYR), null,
+                "  grab\t pay ", 1, 4)).isEqualTo(fingerprint);
+        assertThat(TransactionFingerprint.normalize(" GRAB \n  PAY\t")).isEqualTo("grab pay");
+        assertThat(TransactionFingerprint.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void tellsApartEqualTransactionsAtAnotherPositionOrSide() {
+        final Money amount = Money.of(new BigDecimal("12.50"), MYR);
+        final String fingerprint = TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, amount, null, "GRAB PAY", 1, 4);
+        assertThat(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, amount, null, "GRAB PAY", 1, 5))
+                .isNotEqualTo(fingerprint);
+        assertThat(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, amount, null, "GRAB PAY", 2, 4))
+                .isNotEqualTo(fingerprint);
+        assertThat(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, null, amount, "GRAB PAY", 1, 4))
+                .isNotEqualTo(fingerprint);
+        assertThat(TransactionFingerprint.of(Bank.CIMB, DIGEST, DATE, amount, null, "GRAB PAY", 1, 4))
+                .isNotEqualTo(fingerprint);
+        // fields are separated, so moving text from one to the next is a different transaction
+        assertThat(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, amount, null, "GRAB PAY1", 1, 4))
+                .isNotEqualTo(TransactionFingerprint.of(Bank.UOB, DIGEST, DATE, amount, null, "GRAB PAY", 11, 4));
+    }
+
+    private static Transaction.Builder transaction(String file, String digest) {
+        return new Transaction.Builder(file, DATE, Bank.UOB, "GRAB PAY")
+                .debit(Money.of(new BigDecimal("12.50"), MYR))
+                .fileDigest(digest)
+                .position(1, 4);
+    }
+}
@@ -0,0 +1,98 @@
+package org.jolly.financely.upload;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link UploadStore} stores each statement once under its content digest, also when uploaded at once.
+ */
+class UploadStoreTest {
+    @TempDir
+    Path tempDir;
+    private Path directory;
+    private UploadStore uploadStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = tempDir.resolve("uploads");
+        uploadStore = new UploadStore(directory);
+    }
+
+    @Test
+    void storesAFileUnderItsDigest() throws Exception {
+        final UploadStore.StoredFile stored = uploadStore.store(file("statement.PDF", "statement"));
+        assertThat(stored.path().getFileName().toString()).isEqualTo(stored.sha256() + ".pdf");
+        assertThat(stored.sha256()).isEqualTo(HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest("statement".getBytes(StandardCharsets.UTF_8))));
+        assertThat(stored.originalFileName()).isEqualTo("statement.PDF");
+        assertThat(stored.size()).isEqualTo(9);
+        assertThat(stored.path()).hasContent("statement");
+        assertThat(uploadStore.find(stored.path().getFileName().toString())).isEqualTo(stored.path());
+    }
+
+    @Test
+    void storesTheSameStatementOnce() throws IOException {
+        final UploadStore.StoredFile first = uploadStore.store(file("january.pdf", "statement"));
+        final UploadStore.StoredFile second = uploadStore.store(file("copy of january.pdf", "statement"));
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(second.originalFileName()).isEqualTo("copy of january.pdf");
+        assertThat(files()).containsExactly(first.path());
+    }
+
+    @Test
+    void storesTheSameStatementUploadedAtOnce() throws Exception {
+        final int uploads = 16;
+        final CyclicBarrier barrier = new CyclicBarrier(uploads);
+        final List<Future<UploadStore.StoredFile>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(uploads)) {
+            for (int i = 0; i < uploads; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return uploadStore.store(file("statement.pdf", "statement"));
+                }));
+            }
+            final Path stored = futures.get(0).get().path();
+            for (Future<UploadStore.StoredFile> future : futures) {
+                assertThat(future.get().path()).isEqualTo(stored);
+            }
+            assertThat(files()).containsExactly(stored);
+        }
+    }
+
+    @Test
+    void findsOnlyStoredFiles() throws IOException {
+        uploadStore.store(file("statement.pdf", "statement"));
+        Files.writeString(tempDir.resolve("outside.pdf"), "outside");
+        assertThat(uploadStore.find("missing.pdf")).isNull();
+        assertThat(uploadStore.find("../outside.pdf")).isNull();
+        assertThat(uploadStore.find("..")).isNull();
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+}